@@ -0,0 +1,26 @@
+package com.cart.ecom_proj.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports catalog seeding as "catalogSeed": out of service until {@link DataSeeder} has
+ * finished, so the readiness probe only passes once the sample catalog is in place.
+ */
+@Component
+public class CatalogSeedHealthIndicator implements HealthIndicator {
+
+    @Autowired
+    private DataSeeder dataSeeder;
+
+    @Override
+    public Health health() {
+        return switch (dataSeeder.getState()) {
+            case COMPLETED -> Health.up().withDetail("seeded", dataSeeder.getSeeded()).build();
+            case FAILED -> Health.down().withDetail("error", String.valueOf(dataSeeder.getError())).build();
+            default -> Health.outOfService().withDetail("state", dataSeeder.getState().name()).build();
+        };
+    }
+}
@@ -1,8 +1,15 @@
 package com.cart.ecom_proj.config;
 
+import com.cart.ecom_proj.event.CatalogImportedEvent;
 import com.cart.ecom_proj.model.Product;
 import com.cart.ecom_proj.repo.ProductRepo;
-import org.springframework.boot.CommandLineRunner;
+import com.cart.ecom_proj.service.PlaceholderImageCache;
+import com.cart.ecom_proj.service.ProductImageService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 
 import javax.imageio.ImageIO;
@@ -13,45 +20,155 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
-
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Seeds the sample catalog in the background once the application is ready, so startup does
+ * not wait on image loading and placeholder rendering. Seeding is incremental: sample products
+ * are keyed by SKU and only the missing ones are built, in parallel, and inserted, so a restart
+ * against a populated database costs a single query. Until seeding finishes, the catalogSeed
+ * health indicator keeps the readiness group out of service.
+ */
 @Component
-public class DataSeeder implements CommandLineRunner {
+public class DataSeeder {
+
+        public enum State {
+                PENDING, RUNNING, COMPLETED, FAILED
+        }
+
+        private record SeedProduct(String name, String description, String brand, BigDecimal price,
+                        String category, boolean available, int stock, String imageFileName) {
+
+                // Natural key derived from the name, e.g. "SEED-GAMING-MOUSE-GX"
+                String sku() {
+                        return "SEED-" + name.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]+", "-")
+                                        .replaceAll("^-|-$", "");
+                }
+        }
 
         private final ProductRepo productRepo;
 
-        public DataSeeder(ProductRepo productRepo) {
+        private final ProductImageService imageService;
+
+        private final PlaceholderImageCache placeholderCache;
+
+        private final ApplicationEventPublisher eventPublisher;
+
+        private final int threads;
+
+        private volatile State state = State.PENDING;
+
+        private volatile int seeded;
+
+        private volatile String error;
+
+        public DataSeeder(ProductRepo productRepo, ProductImageService imageService,
+                        PlaceholderImageCache placeholderCache, ApplicationEventPublisher eventPublisher,
+                        @Value("${app.seed.threads:4}") int threads) {
                 this.productRepo = productRepo;
+                this.imageService = imageService;
+                this.placeholderCache = placeholderCache;
+                this.eventPublisher = eventPublisher;
+                this.threads = threads;
+        }
+
+        @EventListener(ApplicationReadyEvent.class)
+        public void seedInBackground() {
+                Thread seeder = new Thread(this::seed, "catalog-seeder");
+                seeder.setDaemon(true);
+                seeder.start();
         }
 
-        @Override
-        public void run(String... args) {
-                // Only seed if no products exist, or if existing products don't have images
-                long productCount = productRepo.count();
-                if (productCount > 0) {
-                        // Check if any existing product has real image data (more than just 1 byte
-                        // placeholder)
-                        boolean hasRealImagesAlready = productRepo.findAll().stream()
-                                        .anyMatch(p -> p.getImageDate() != null && p.getImageDate().length > 1000);
-
-                        if (hasRealImagesAlready) {
-                                System.out.println(
-                                                "Products with real images already exist. Force updating with custom placeholders...");
-                                updateExistingProductsWithImages();
-                                return;
-                        } else {
-                                System.out.println(
-                                                "Products exist but no real images found. Updating existing products with real images...");
-                                updateExistingProductsWithImages();
-                                return;
+        public State getState() {
+                return state;
+        }
+
+        public int getSeeded() {
+                return seeded;
+        }
+
+        public String getError() {
+                return error;
+        }
+
+        void seed() {
+                state = State.RUNNING;
+                long start = System.currentTimeMillis();
+                ExecutorService loaders = Executors.newFixedThreadPool(threads, runnable -> {
+                        Thread thread = new Thread(runnable, "catalog-seed-loader");
+                        thread.setDaemon(true);
+                        return thread;
+                });
+                try {
+                        List<SeedProduct> catalog = sampleProducts();
+                        Set<String> existing = new HashSet<>(productRepo.findExistingSkus(
+                                        catalog.stream().map(SeedProduct::sku).toList()));
+                        adoptLegacyRows(catalog, existing);
+
+                        List<Future<Product>> builds = new ArrayList<>();
+                        for (SeedProduct seed : catalog) {
+                                if (!existing.contains(seed.sku())) {
+                                        builds.add(loaders.submit(() -> createProductWithRealImage(seed)));
+                                }
                         }
+                        List<Product> missing = new ArrayList<>();
+                        for (Future<Product> build : builds) {
+                                missing.add(build.get());
+                        }
+
+                        if (!missing.isEmpty()) {
+                                productRepo.saveAll(missing);
+                                eventPublisher.publishEvent(new CatalogImportedEvent(missing.size()));
+                        }
+                        seeded = missing.size();
+                        state = State.COMPLETED;
+                        System.out.println("Seeded " + missing.size() + " products (" + existing.size()
+                                        + " already present) in " + (System.currentTimeMillis() - start) + " ms");
+                } catch (DataIntegrityViolationException e) {
+                        // Another instance inserted the same SKUs first
+                        state = State.COMPLETED;
+                        System.out.println("Sample products were seeded concurrently by another instance");
+                } catch (Exception e) {
+                        error = e.getMessage();
+                        state = State.FAILED;
+                        System.err.println("Catalog seeding failed: " + e.getMessage());
+                } finally {
+                        loaders.shutdownNow();
                 }
+        }
 
-                List<Product> sampleProducts = Arrays.asList(
-                                createProductWithRealImage(
+        // Rows seeded before products had SKUs get theirs instead of being inserted a second time
+        private void adoptLegacyRows(List<SeedProduct> catalog, Set<String> existing) {
+                List<SeedProduct> unmatched = catalog.stream().filter(seed -> !existing.contains(seed.sku())).toList();
+                if (unmatched.isEmpty()) {
+                        return;
+                }
+                Set<String> legacyNames = productRepo.findNamesWithoutSku(
+                                unmatched.stream().map(SeedProduct::name).toList());
+                int adopted = 0;
+                for (SeedProduct seed : unmatched) {
+                        if (legacyNames.contains(seed.name())
+                                        && productRepo.backfillSku(seed.sku(), seed.name(), seed.brand()) > 0) {
+                                existing.add(seed.sku());
+                                adopted++;
+                        }
+                }
+                if (adopted > 0) {
+                        System.out.println("Assigned SKUs to " + adopted + " sample products seeded without one");
+                }
+        }
+
+        private List<SeedProduct> sampleProducts() {
+                return List.of(
+                                new SeedProduct(
                                                 "Wireless Headphones",
                                                 "Over-ear Bluetooth headphones with noise cancellation and 30h battery.",
                                                 "SoundWave",
@@ -60,7 +177,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 120,
                                                 "wireless_headphones.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Smartphone X12",
                                                 "6.5\" OLED display, 128GB storage, triple-camera system.",
                                                 "NeoMobile",
@@ -69,7 +186,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 75,
                                                 "smartphone_x12.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Ultrabook Pro 14",
                                                 "14\" laptop, 16GB RAM, 512GB SSD, Intel i7 13th Gen.",
                                                 "AeroTech",
@@ -78,7 +195,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 40,
                                                 "ultrabook_pro_14.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Gaming Mouse GX",
                                                 "Ergonomic RGB mouse with 8 programmable buttons, 16K DPI sensor.",
                                                 "HyperClick",
@@ -87,7 +204,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 200,
                                                 "gaming_mouse_gx.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Mechanical Keyboard MK87",
                                                 "87-key mechanical keyboard with hot-swappable switches and RGB.",
                                                 "KeyForge",
@@ -96,7 +213,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 150,
                                                 "mechanical_keyboard_mk87.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "4K UHD Monitor 27\"",
                                                 "27-inch IPS monitor with HDR10 and 144Hz refresh rate.",
                                                 "VisionPlus",
@@ -105,7 +222,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 60,
                                                 "4k_monitor_27.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Bluetooth Speaker Mini",
                                                 "Portable waterproof speaker with 12h playtime and deep bass.",
                                                 "BoomBox",
@@ -114,7 +231,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 300,
                                                 "bluetooth_speaker_mini.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Wireless Earbuds Pro",
                                                 "True wireless earbuds with active noise cancellation and 24h battery.",
                                                 "SoundWave",
@@ -123,7 +240,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 180,
                                                 "wireless_earbuds.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Tablet Pro 10\"",
                                                 "10-inch tablet with 256GB storage, stylus support, and 12h battery.",
                                                 "TabTech",
@@ -132,7 +249,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 90,
                                                 "tablet_pro.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Smart Watch Series 5",
                                                 "Fitness tracking, heart rate monitor, GPS, and 7-day battery life.",
                                                 "WearTech",
@@ -141,7 +258,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 120,
                                                 "smart_watch.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "HD Webcam 4K",
                                                 "4K webcam with auto-focus, noise cancellation, and privacy shutter.",
                                                 "CamTech",
@@ -150,7 +267,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 80,
                                                 "webcam_hd.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Gaming Headset Pro",
                                                 "7.1 surround sound gaming headset with RGB lighting and noise cancellation.",
                                                 "GameAudio",
@@ -159,7 +276,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 100,
                                                 "gaming_headset.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "External HDD 2TB",
                                                 "2TB portable hard drive with USB 3.0 and password protection.",
                                                 "StorageMax",
@@ -168,7 +285,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 200,
                                                 "external_hdd.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "USB-C Cable 6ft",
                                                 "High-speed USB-C cable with 100W power delivery and data transfer.",
                                                 "CablePro",
@@ -177,7 +294,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 500,
                                                 "usb_cable.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Power Bank 20000mAh",
                                                 "High-capacity power bank with fast charging and wireless charging pad.",
                                                 "PowerMax",
@@ -186,7 +303,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 150,
                                                 "power_bank.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Laptop Stand Adjustable",
                                                 "Ergonomic aluminum laptop stand with adjustable height and angle.",
                                                 "ErgoTech",
@@ -195,7 +312,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 75,
                                                 "laptop_stand.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Desktop PC Gaming",
                                                 "High-performance gaming PC with RTX 4070, 32GB RAM, 1TB SSD.",
                                                 "GamePC",
@@ -204,7 +321,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 25,
                                                 "desktop_pc.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Inkjet Printer All-in-One",
                                                 "Wireless all-in-one printer with scanning, copying, and mobile printing.",
                                                 "PrintTech",
@@ -213,7 +330,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 60,
                                                 "printer_inkjet.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "WiFi Router AC3000",
                                                 "Tri-band WiFi 6 router with mesh support and advanced security.",
                                                 "NetTech",
@@ -222,7 +339,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 40,
                                                 "router_wifi.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "USB Microphone Studio",
                                                 "Professional USB microphone with cardioid pattern and zero-latency monitoring.",
                                                 "AudioPro",
@@ -231,7 +348,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 70,
                                                 "microphone_usb.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "Graphics Card RTX 4080",
                                                 "High-end graphics card with 16GB GDDR6X memory and ray tracing.",
                                                 "GPUPro",
@@ -240,7 +357,7 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 15,
                                                 "graphics_card.jpg"),
-                                createProductWithRealImage(
+                                new SeedProduct(
                                                 "SSD Drive 1TB NVMe",
                                                 "Ultra-fast NVMe SSD with read speeds up to 7000 MB/s.",
                                                 "StorageMax",
@@ -249,103 +366,27 @@ public class DataSeeder implements CommandLineRunner {
                                                 true,
                                                 100,
                                                 "ssd_drive.jpg"));
-
-                productRepo.saveAll(sampleProducts);
         }
 
-        private Product createProductWithRealImage(
-                        String name,
-                        String description,
-                        String brand,
-                        BigDecimal price,
-                        String category,
-                        boolean available,
-                        int stock,
-                        String imageFileName) {
+        private Product createProductWithRealImage(SeedProduct seed) {
                 Product product = new Product();
-                product.setName(name);
-                product.setDescription(description);
-                product.setBrand(brand);
-                product.setPrice(price);
-                product.setCategory(category);
+                product.setSku(seed.sku());
+                product.setName(seed.name());
+                product.setDescription(seed.description());
+                product.setBrand(seed.brand());
+                product.setPrice(seed.price());
+                product.setCategory(seed.category());
                 product.setReleaseDate(new Date());
-                product.setProductAvailable(available);
-                product.setStockQuantity(stock);
+                product.setProductAvailable(seed.available());
+                product.setStockQuantity(seed.stock());
 
                 // Load real image from resources
-                byte[] imageData = loadImageFromResources(imageFileName);
-                product.setImageName(imageFileName);
-                product.setImageType("image/jpeg");
-                product.setImageDate(imageData);
+                byte[] imageData = loadImageFromResources(seed.imageFileName());
+                imageService.attachImage(product, seed.imageFileName(), "image/jpeg", imageData);
 
                 return product;
         }
 
-        private void updateExistingProductsWithImages() {
-                List<Product> existingProducts = productRepo.findAll();
-
-                // Map product names to their corresponding image files
-                java.util.Map<String, String> productImageMap = new java.util.HashMap<>();
-                productImageMap.put("Wireless Headphones", "wireless_headphones.jpg");
-                productImageMap.put("Smartphone X12", "smartphone_x12.jpg");
-                productImageMap.put("Ultrabook Pro 14", "ultrabook_pro_14.jpg");
-                productImageMap.put("Gaming Mouse GX", "gaming_mouse_gx.jpg");
-                productImageMap.put("Mechanical Keyboard MK87", "mechanical_keyboard_mk87.jpg");
-                productImageMap.put("4K UHD Monitor 27\"", "4k_monitor_27.jpg");
-                productImageMap.put("Bluetooth Speaker Mini", "bluetooth_speaker_mini.jpg");
-                productImageMap.put("Wireless Earbuds Pro", "wireless_earbuds.jpg");
-                productImageMap.put("Tablet Pro 10\"", "tablet_pro.jpg");
-                productImageMap.put("Smart Watch Series 5", "smart_watch.jpg");
-                productImageMap.put("HD Webcam 4K", "webcam_hd.jpg");
-                productImageMap.put("Gaming Headset Pro", "gaming_headset.jpg");
-                productImageMap.put("External HDD 2TB", "external_hdd.jpg");
-                productImageMap.put("USB-C Cable 6ft", "usb_cable.jpg");
-                productImageMap.put("Power Bank 20000mAh", "power_bank.jpg");
-                productImageMap.put("Laptop Stand Adjustable", "laptop_stand.jpg");
-                productImageMap.put("Desktop PC Gaming", "desktop_pc.jpg");
-                productImageMap.put("Inkjet Printer All-in-One", "printer_inkjet.jpg");
-                productImageMap.put("WiFi Router AC3000", "router_wifi.jpg");
-                productImageMap.put("USB Microphone Studio", "microphone_usb.jpg");
-                productImageMap.put("Graphics Card RTX 4080", "graphics_card.jpg");
-                productImageMap.put("SSD Drive 1TB NVMe", "ssd_drive.jpg");
-
-                for (Product product : existingProducts) {
-                        // Try exact match first, then case-insensitive match
-                        String imageFileName = productImageMap.get(product.getName());
-                        if (imageFileName == null) {
-                                // Try case-insensitive match
-                                for (Map.Entry<String, String> entry : productImageMap.entrySet()) {
-                                        if (entry.getKey().equalsIgnoreCase(product.getName())) {
-                                                imageFileName = entry.getValue();
-                                                break;
-                                        }
-                                }
-                        }
-
-                        if (imageFileName != null) {
-                                // Load real image from resources
-                                byte[] imageData = loadImageFromResources(imageFileName);
-                                product.setImageName(imageFileName);
-                                product.setImageType("image/jpeg");
-                                product.setImageDate(imageData);
-                                System.out.println("Updated product '" + product.getName() + "' with real image: "
-                                                + imageFileName);
-                        } else {
-                                // Generate product-specific placeholder image
-                                Color bgColor = getProductColor(product.getName());
-                                product.setImageName(product.getName().toLowerCase().replace(" ", "_") + ".png");
-                                product.setImageType("image/png");
-                                product.setImageDate(generatePlaceholderImage(product.getName(), bgColor));
-                                System.out.println(
-                                                "Updated product '" + product.getName()
-                                                                + "' with custom placeholder image");
-                        }
-                }
-
-                productRepo.saveAll(existingProducts);
-                System.out.println("Updated " + existingProducts.size() + " existing products with images.");
-        }
-
         private byte[] loadImageFromResources(String imageFileName) {
                 try {
                         // Load image from resources/images directory
@@ -366,6 +407,12 @@ public class DataSeeder implements CommandLineRunner {
         }
 
         private byte[] generatePlaceholderImage(String productName, Color bgColor) {
+                // The icon depends on the whole name, so the cache key uses it rather than the cut-down text
+                return placeholderCache.get("seed", productName, 200, 150, bgColor,
+                                () -> renderPlaceholderImage(productName, bgColor)).png();
+        }
+
+        private byte[] renderPlaceholderImage(String productName, Color bgColor) {
                 try {
                         // Create a larger 200x150 image for better visibility
                         BufferedImage image = new BufferedImage(200, 150, BufferedImage.TYPE_INT_RGB);
@@ -389,8 +436,7 @@ public class DataSeeder implements CommandLineRunner {
                         g2d.setColor(Color.WHITE);
                         g2d.setFont(new Font("Arial", Font.BOLD, 12));
                         FontMetrics fm = g2d.getFontMetrics();
-                        String displayName = productName.length() > 20 ? productName.substring(0, 17) + "..."
-                                        : productName;
+                        String displayName = PlaceholderImageCache.displayText(productName);
                         int textX = (200 - fm.stringWidth(displayName)) / 2;
                         int textY = 130;
                         g2d.drawString(displayName, textX, textY);
@@ -489,31 +535,4 @@ public class DataSeeder implements CommandLineRunner {
                         g2d.drawString(letter, x, y);
                 }
         }
-
-        private Color getProductColor(String productName) {
-                String lowerName = productName.toLowerCase();
-                if (lowerName.contains("hdd") || lowerName.contains("hard drive") || lowerName.contains("external")) {
-                        return new Color(70, 130, 180); // Steel blue for storage
-                } else if (lowerName.contains("cable") || lowerName.contains("usb")) {
-                        return new Color(255, 140, 0); // Orange for cables
-                } else if (lowerName.contains("power bank") || lowerName.contains("battery")) {
-                        return new Color(50, 205, 50); // Green for power
-                } else if (lowerName.contains("laptop stand") || lowerName.contains("stand")) {
-                        return new Color(128, 128, 128); // Gray for stands
-                } else if (lowerName.contains("monitor") || lowerName.contains("display")) {
-                        return new Color(75, 0, 130); // Indigo for displays
-                } else if (lowerName.contains("mouse")) {
-                        return new Color(220, 20, 60); // Crimson for mice
-                } else if (lowerName.contains("keyboard")) {
-                        return new Color(255, 20, 147); // Deep pink for keyboards
-                } else if (lowerName.contains("headphone") || lowerName.contains("headset")) {
-                        return new Color(138, 43, 226); // Blue violet for audio
-                } else if (lowerName.contains("smartphone") || lowerName.contains("phone")) {
-                        return new Color(0, 191, 255); // Deep sky blue for phones
-                } else if (lowerName.contains("laptop") || lowerName.contains("notebook")) {
-                        return new Color(30, 144, 255); // Dodger blue for laptops
-                } else {
-                        return new Color(105, 105, 105); // Dim gray default
-                }
-        }
 }
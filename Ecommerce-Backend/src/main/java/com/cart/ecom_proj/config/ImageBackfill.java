@@ -0,0 +1,147 @@
+package com.cart.ecom_proj.config;
+
+import com.cart.ecom_proj.event.CatalogImportedEvent;
+import com.cart.ecom_proj.service.ImageStore;
+import com.cart.ecom_proj.service.ProductCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Moves image bytes that older versions kept in the database into the {@link ImageStore}, in
+ * the background once the application is ready: the {@code product.image_date} column, whose
+ * rows are then pointed at the stored image, and the short-lived {@code product_images} table,
+ * whose rows were already keyed by the SHA-256 the store uses. Rows are walked in chunks and
+ * each blob is streamed to the store on its own, so memory does not grow with the catalog.
+ * Migrated bytes are cleared from the database, so the job finds nothing left on the next
+ * start and costs one metadata lookup per source once the legacy column and table are dropped.
+ */
+@Component
+public class ImageBackfill {
+
+    private static final String PENDING_SQL = "SELECT id FROM product WHERE id > ? AND image_key IS NULL "
+            + "AND image_date IS NOT NULL ORDER BY id LIMIT ?";
+
+    private static final String DATA_SQL = "SELECT image_date FROM product WHERE id = ?";
+
+    private static final String UPDATE_SQL = "UPDATE product SET image_key = ?, image_size = ?, image_date = NULL "
+            + "WHERE id = ? AND image_key IS NULL";
+
+    private static final String PENDING_TABLE_SQL = "SELECT image_key FROM product_images WHERE image_key > ? "
+            + "ORDER BY image_key LIMIT ?";
+
+    private static final String TABLE_DATA_SQL = "SELECT data FROM product_images WHERE image_key = ?";
+
+    private static final String TABLE_DELETE_SQL = "DELETE FROM product_images WHERE image_key = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.images.backfill-chunk-size:100}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillInBackground() {
+        Thread backfill = new Thread(this::backfill, "image-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+
+    void backfill() {
+        long start = System.currentTimeMillis();
+        try {
+            backfillImageTable();
+            if (!hasColumn("product", "image_date")) {
+                return;
+            }
+            int migrated = 0;
+            int afterId = 0;
+            List<Integer> ids;
+            while (!(ids = jdbcTemplate.queryForList(PENDING_SQL, Integer.class, afterId, chunkSize)).isEmpty()) {
+                for (Integer id : ids) {
+                    ImageStore.StoredImage stored = jdbcTemplate.query(DATA_SQL, rs -> rs.next() ? store(rs) : null, id);
+                    if (stored != null && jdbcTemplate.update(UPDATE_SQL, stored.key(), stored.size(), id) > 0) {
+                        productCache.invalidate(id);
+                        migrated++;
+                    }
+                }
+                afterId = ids.get(ids.size() - 1);
+            }
+            if (migrated > 0) {
+                eventPublisher.publishEvent(new CatalogImportedEvent(migrated));
+                System.out.println("Moved " + migrated + " product images from image_date to the image store in "
+                        + (System.currentTimeMillis() - start) + " ms");
+            }
+        } catch (RuntimeException e) {
+            // Rows not yet migrated keep their bytes and are picked up on the next start
+            System.err.println("Image backfill failed: " + e.getMessage());
+        }
+    }
+
+    // Rows already point at these keys, so only the files have to appear in the store
+    private void backfillImageTable() {
+        if (!hasColumn("product_images", "data")) {
+            return;
+        }
+        int moved = 0;
+        String afterKey = "";
+        List<String> keys;
+        while (!(keys = jdbcTemplate.queryForList(PENDING_TABLE_SQL, String.class, afterKey, chunkSize)).isEmpty()) {
+            for (String key : keys) {
+                if (imageStore.locate(key) == null) {
+                    ImageStore.StoredImage stored = jdbcTemplate.query(TABLE_DATA_SQL,
+                            rs -> rs.next() ? store(rs) : null, key);
+                    if (stored == null || !stored.key().equals(key)) {
+                        System.err.println("Image " + key + " in product_images does not match its key; kept");
+                        continue;
+                    }
+                    moved++;
+                }
+                jdbcTemplate.update(TABLE_DELETE_SQL, key);
+            }
+            afterKey = keys.get(keys.size() - 1);
+        }
+        if (moved > 0) {
+            System.out.println("Moved " + moved + " images from product_images to the image store");
+        }
+    }
+
+    private ImageStore.StoredImage store(ResultSet rs) throws SQLException {
+        try (InputStream in = rs.getBinaryStream(1)) {
+            return in != null ? imageStore.store(in) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image", e);
+        }
+    }
+
+    private boolean hasColumn(String table, String column) {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            try (ResultSet columns = metaData.getColumns(connection.getCatalog(), null, table, column)) {
+                return columns.next();
+            }
+        }));
+    }
+}
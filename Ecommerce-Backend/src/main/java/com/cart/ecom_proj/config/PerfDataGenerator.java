@@ -0,0 +1,508 @@
+package com.cart.ecom_proj.config;
+
+import com.cart.ecom_proj.event.CatalogImportedEvent;
+import com.cart.ecom_proj.model.Product;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fills the database with a large synthetic data set for reproducing performance problems
+ * locally. Only active with the {@code perf} profile; volumes come from {@code app.perf.*}
+ * (see application-perf.properties).
+ * <p>
+ * Work is split into chunks of {@code app.perf.batch-size} rows, generated in parallel and
+ * written with JDBC batch inserts, one transaction per chunk. Every chunk draws from its own
+ * Random seeded from {@code app.perf.random-seed}, so a run is reproducible. Products and users
+ * are topped up to their targets (generated ones are recognised by their PERF- SKU and perf_
+ * username), orders until the order item count reaches its target, and carts only while the
+ * cart table is empty, so restarting against the same database does not duplicate data.
+ * Order ids are assigned by the generator, so the application should not take orders while
+ * it runs.
+ * <p>
+ * Distributions: categories and brands are Zipf-weighted, prices log-normal around a
+ * per-category median, order sizes geometric (mean about 2.2 lines), and product popularity
+ * follows a power law where the most popular 10% of products receive about half of all order
+ * and cart lines.
+ */
+@Component
+@Profile("perf")
+public class PerfDataGenerator {
+
+    private static final String[] CATEGORIES = {
+            "Electronics", "Accessories", "Computers", "Mobiles", "Audio", "Monitors", "Storage", "Gaming",
+            "Networking", "Components", "Tablets", "Wearables", "Cameras", "Printers", "Smart Home",
+            "Office", "Software", "Cables", "Power", "Furniture"
+    };
+
+    private static final double[] CATEGORY_MEDIAN_PRICE = {
+            120, 25, 900, 450, 80, 280, 90, 60, 110, 220, 380, 200, 550, 150, 70, 40, 50, 12, 35, 180
+    };
+
+    private static final String[] BRAND_PREFIXES = {
+            "Aero", "Bolt", "Core", "Delta", "Echo", "Flux", "Giga", "Hyper", "Ion", "Jet", "Kilo", "Luma",
+            "Nova", "Omni", "Pixel"
+    };
+
+    private static final String[] BRAND_SUFFIXES = {
+            "Tech", "Works", "Labs", "Wave", "Forge", "Line", "Max", "Systems", "Gear", "One"
+    };
+
+    private static final String[] ADJECTIVES = {
+            "Pro", "Ultra", "Mini", "Max", "Lite", "Plus", "Air", "Elite", "Prime", "Neo", "Compact", "Wireless"
+    };
+
+    private static final String[] NOUNS = {
+            "Headphones", "Keyboard", "Mouse", "Monitor", "Laptop", "Phone", "Speaker", "Router", "Drive",
+            "Camera", "Watch", "Tablet", "Charger", "Hub", "Dock", "Stand", "Webcam", "Microphone", "Lamp", "Chair"
+    };
+
+    private static final String[] FIRST_NAMES = {
+            "Aarav", "Olivia", "Liam", "Priya", "Noah", "Emma", "Mateo", "Sofia", "Yuki", "Chen", "Amara",
+            "Lucas", "Zara", "Ivan", "Fatima", "Diego", "Mia", "Omar", "Anika", "Leo"
+    };
+
+    private static final String[] LAST_NAMES = {
+            "Sharma", "Smith", "Garcia", "Kim", "Nguyen", "Müller", "Rossi", "Okafor", "Silva", "Tanaka",
+            "Patel", "Johnson", "Lopez", "Cohen", "Novak", "Ali", "Brown", "Singh", "Dubois", "Kowalski"
+    };
+
+    private static final String[] COUNTRIES = {"IN", "US", "GB", "DE", "FR", "BR", "JP", "CA", "AU", "ES"};
+
+    private static final String[] CITIES = {
+            "Mumbai", "Austin", "London", "Berlin", "Lyon", "Recife", "Osaka", "Toronto", "Perth", "Seville"
+    };
+
+    private static final String[] PAYMENT_METHODS = {"CARD", "UPI", "PAYPAL", "COD"};
+
+    private static final int MAX_CHUNK_ATTEMPTS = 3;
+
+    private static final String[] ORDER_STATUSES = {"DELIVERED", "SHIPPED", "CONFIRMED", "PENDING", "CANCELLED"};
+
+    // Cumulative weights for pick()
+    private static final double[] ORDER_STATUS_CDF = {60, 75, 85, 95, 100};
+    private static final double[] CATEGORY_CDF = zipfCdf(CATEGORIES.length, 0.8);
+    private static final double[] BRAND_CDF = zipfCdf(25, 1.1);
+
+    private static final String PRODUCT_SQL = "INSERT INTO product (sku, name, description, brand, price, category, "
+            + "release_date, product_available, stock_quantity, category_key, brand_key) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String USER_SQL = "INSERT INTO users (email, password, first_name, last_name, username, "
+            + "phone_number, country, role, enabled) VALUES (?, ?, ?, ?, ?, ?, ?, 'USER', TRUE)";
+
+    private static final String ORDER_SQL = "INSERT INTO orders (id, user_id, total_amount, status, order_date, "
+            + "shipping_address, payment_method, phone_number) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ORDER_ITEM_SQL = "INSERT INTO order_items (order_id, product_id, quantity, price, "
+            + "total_price) VALUES (?, ?, ?, ?, ?)";
+
+    private static final String CART_SQL = "INSERT INTO cart_items (user_id, product_id, quantity, price, added_at, "
+            + "updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private record Line(int productIndex, int quantity) {
+    }
+
+    private record GeneratedOrder(long userId, BigDecimal total, String status, Timestamp date, String address,
+                                  String paymentMethod, String phone, List<Line> lines) {
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.perf.products:1000000}")
+    private long targetProducts;
+
+    @Value("${app.perf.users:100000}")
+    private long targetUsers;
+
+    @Value("${app.perf.order-items:10000000}")
+    private long targetOrderItems;
+
+    @Value("${app.perf.cart-items:500000}")
+    private long targetCartItems;
+
+    @Value("${app.perf.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${app.perf.threads:4}")
+    private int threads;
+
+    @Value("${app.perf.random-seed:42}")
+    private long randomSeed;
+
+    // Filled after the product and user phases, read by the order and cart chunks
+    private int[] productIds;
+    private BigDecimal[] productPrices;
+    private long[] userIds;
+    // Order ids are assigned here, not by the database: chunk c owns the ids after base + c * batch-size
+    private long orderIdBase;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateInBackground() {
+        Thread generator = new Thread(this::generate, "perf-data-generator");
+        generator.setDaemon(true);
+        generator.start();
+    }
+
+    void generate() {
+        long start = System.currentTimeMillis();
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "perf-data-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long existingProducts = count("SELECT COUNT(*) FROM product WHERE sku LIKE 'PERF-%'");
+            long newProducts = Math.max(0, targetProducts - existingProducts);
+            runChunks(workers, "products", 1, newProducts,
+                    (chunk, from, size) -> insertProducts(chunk, existingProducts + from, size));
+            if (newProducts > 0) {
+                eventPublisher.publishEvent(new CatalogImportedEvent(newProducts));
+            }
+
+            long existingUsers = count("SELECT COUNT(*) FROM users WHERE username LIKE 'perf\\_%'");
+            long newUsers = Math.max(0, targetUsers - existingUsers);
+            // One hash for every generated user; bcrypt per row would dominate the run
+            String passwordHash = passwordEncoder.encode("perf-password");
+            runChunks(workers, "users", 2, newUsers,
+                    (chunk, from, size) -> insertUsers(chunk, existingUsers + from, size, passwordHash));
+
+            loadProductsAndUsers();
+            if (productIds.length > 0 && userIds.length > 0) {
+                long newOrderItems = Math.max(0, targetOrderItems - count("SELECT COUNT(*) FROM order_items"));
+                orderIdBase = count("SELECT COALESCE(MAX(id), 0) FROM orders");
+                runChunks(workers, "order items", 3, newOrderItems, this::insertOrders);
+
+                if (count("SELECT COUNT(*) FROM cart_items") == 0) {
+                    // Carts average about 2.5 lines
+                    long cartUsers = Math.min(userIds.length, (long) Math.ceil(targetCartItems / 2.5));
+                    runChunks(workers, "carts", 4, cartUsers, this::insertCarts);
+                }
+            }
+
+            System.out.println("Perf data generation finished in " + (System.currentTimeMillis() - start) + " ms");
+        } catch (RuntimeException e) {
+            System.err.println("Perf data generation failed: " + e.getMessage());
+        } finally {
+            workers.shutdownNow();
+            productIds = null;
+            productPrices = null;
+            userIds = null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface ChunkWriter {
+        void write(Random random, long from, int size);
+    }
+
+    /**
+     * Splits {@code rows} into chunks, runs them on the pool and waits for all of them,
+     * reporting progress roughly every tenth of the work.
+     */
+    private void runChunks(ExecutorService workers, String label, int phase, long rows, ChunkWriter writer) {
+        if (rows <= 0) {
+            System.out.println("Perf data: no " + label + " to generate");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long chunks = (rows + batchSize - 1) / batchSize;
+        long reportEvery = Math.max(1, chunks / 10);
+        List<Future<?>> futures = new ArrayList<>();
+        for (long chunk = 0; chunk < chunks; chunk++) {
+            long from = chunk * batchSize;
+            int size = (int) Math.min(batchSize, rows - from);
+            long chunkSeed = randomSeed * 31 * 31 + phase * 31L + chunk;
+            futures.add(workers.submit(() -> writeChunk(writer, chunkSeed, from, size)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (ExecutionException e) {
+                futures.forEach(future -> future.cancel(true));
+                throw new RuntimeException("Generating " + label + " failed: " + e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while generating " + label, e);
+            }
+            if ((i + 1) % reportEvery == 0) {
+                System.out.println("Perf data: " + Math.min(rows, (i + 1L) * batchSize) + "/" + rows + " " + label);
+            }
+        }
+        System.out.println("Perf data: generated " + rows + " " + label + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Parallel batches into the same indexes can deadlock; the loser is rolled back and rewritten
+    private void writeChunk(ChunkWriter writer, long chunkSeed, long from, int size) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> writer.write(new Random(chunkSeed), from, size));
+                return;
+            } catch (PessimisticLockingFailureException e) {
+                if (attempt == MAX_CHUNK_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private void insertProducts(Random random, long firstNumber, int size) {
+        jdbcTemplate.batchUpdate(PRODUCT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long number = firstNumber + i;
+                int category = pick(random, CATEGORY_CDF);
+                // Each category draws mostly from its own handful of leading brands
+                int brandIndex = (category * 7 + pick(random, BRAND_CDF))
+                        % (BRAND_PREFIXES.length * BRAND_SUFFIXES.length);
+                String brand = BRAND_PREFIXES[brandIndex % BRAND_PREFIXES.length]
+                        + BRAND_SUFFIXES[brandIndex / BRAND_PREFIXES.length];
+                String name = brand + " " + ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " "
+                        + NOUNS[random.nextInt(NOUNS.length)] + " " + (100 + random.nextInt(900));
+                double price = CATEGORY_MEDIAN_PRICE[category] * Math.exp(0.6 * random.nextGaussian());
+                boolean inStock = random.nextDouble() >= 0.08;
+
+                ps.setString(1, "PERF-" + number);
+                ps.setString(2, name);
+                ps.setString(3, "Synthetic " + CATEGORIES[category].toLowerCase() + " product #" + number
+                        + " for performance testing.");
+                ps.setString(4, brand);
+                ps.setBigDecimal(5, BigDecimal.valueOf(Math.max(1, Math.round(price)) * 100 - 1, 2));
+                ps.setString(6, CATEGORIES[category]);
+                ps.setTimestamp(7, Timestamp.valueOf(LocalDateTime.now().minusDays(random.nextInt(5 * 365))));
+                ps.setBoolean(8, inStock);
+                ps.setInt(9, inStock ? 1 + (int) (500 * random.nextDouble() * random.nextDouble()) : 0);
+                ps.setString(10, Product.filterKey(CATEGORIES[category]));
+                ps.setString(11, Product.filterKey(brand));
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        });
+    }
+
+    private void insertUsers(Random random, long firstNumber, int size, String passwordHash) {
+        jdbcTemplate.batchUpdate(USER_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                long number = firstNumber + i;
+                ps.setString(1, "perf.user" + number + "@perf.example");
+                ps.setString(2, passwordHash);
+                ps.setString(3, FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+                ps.setString(4, LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+                ps.setString(5, "perf_user_" + number);
+                ps.setString(6, phone(random));
+                ps.setString(7, COUNTRIES[random.nextInt(COUNTRIES.length)]);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return size;
+            }
+        });
+    }
+
+    /**
+     * Generates whole orders until {@code size} order lines have been produced and inserts
+     * the orders, then their lines. A chunk never has more orders than lines, so the id
+     * ranges of different chunks cannot overlap.
+     */
+    private void insertOrders(Random random, long from, int size) {
+        List<GeneratedOrder> orders = new ArrayList<>();
+        int lines = 0;
+        while (lines < size) {
+            int orderLines = Math.min(Math.min(size - lines, 1 + geometric(random, 0.45, 19)), productIds.length);
+            orders.add(generateOrder(random, orderLines));
+            lines += orderLines;
+        }
+        long firstOrderId = orderIdBase + from + 1;
+
+        jdbcTemplate.batchUpdate(ORDER_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                GeneratedOrder order = orders.get(i);
+                ps.setLong(1, firstOrderId + i);
+                ps.setLong(2, order.userId());
+                ps.setBigDecimal(3, order.total());
+                ps.setString(4, order.status());
+                ps.setTimestamp(5, order.date());
+                ps.setString(6, order.address());
+                ps.setString(7, order.paymentMethod());
+                ps.setString(8, order.phone());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return orders.size();
+            }
+        });
+
+        List<Object[]> items = new ArrayList<>(size);
+        for (int i = 0; i < orders.size(); i++) {
+            for (Line line : orders.get(i).lines()) {
+                BigDecimal price = productPrices[line.productIndex()];
+                items.add(new Object[] {firstOrderId + i, productIds[line.productIndex()], line.quantity(), price,
+                        price.multiply(BigDecimal.valueOf(line.quantity()))});
+            }
+        }
+        jdbcTemplate.batchUpdate(ORDER_ITEM_SQL, items);
+    }
+
+    private GeneratedOrder generateOrder(Random random, int lineCount) {
+        List<Line> lines = new ArrayList<>(lineCount);
+        Set<Integer> products = new HashSet<>();
+        BigDecimal total = BigDecimal.ZERO;
+        while (lines.size() < lineCount) {
+            int productIndex = popularProduct(random);
+            if (!products.add(productIndex)) {
+                continue;
+            }
+            double q = random.nextDouble();
+            int quantity = q < 0.75 ? 1 : q < 0.92 ? 2 : 3 + random.nextInt(3);
+            lines.add(new Line(productIndex, quantity));
+            total = total.add(productPrices[productIndex].multiply(BigDecimal.valueOf(quantity)));
+        }
+        String city = CITIES[random.nextInt(CITIES.length)];
+        return new GeneratedOrder(
+                userIds[random.nextInt(userIds.length)],
+                total,
+                ORDER_STATUSES[pick(random, ORDER_STATUS_CDF)],
+                Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(2 * 365 * 24 * 60))),
+                (1 + random.nextInt(999)) + " Market Street, " + city,
+                PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)],
+                phone(random),
+                lines);
+    }
+
+    /**
+     * Carts for users {@code from} to {@code from + size}, 1 to 6 distinct products each;
+     * chunks cover disjoint users, so no user gets two rows for the same product.
+     */
+    private void insertCarts(Random random, long from, int size) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int user = (int) from; user < from + size; user++) {
+            int cartLines = 1 + geometric(random, 0.4, 5);
+            Set<Integer> products = new HashSet<>();
+            Timestamp addedAt = Timestamp.valueOf(LocalDateTime.now().minusMinutes(random.nextInt(30 * 24 * 60)));
+            while (products.size() < Math.min(cartLines, productIds.length)) {
+                int productIndex = popularProduct(random);
+                if (products.add(productIndex)) {
+                    rows.add(new Object[] {userIds[user], productIds[productIndex], 1 + random.nextInt(3),
+                            productPrices[productIndex], addedAt, addedAt});
+                }
+            }
+        }
+        jdbcTemplate.batchUpdate(CART_SQL, rows);
+    }
+
+    private void loadProductsAndUsers() {
+        JdbcTemplate cursor = new JdbcTemplate(dataSource);
+        cursor.setFetchSize(10_000);
+
+        int productCount = (int) count("SELECT COUNT(*) FROM product");
+        int[] ids = new int[productCount];
+        BigDecimal[] prices = new BigDecimal[productCount];
+        int[] loaded = new int[1];
+        cursor.query("SELECT id, price FROM product ORDER BY id", rs -> {
+            if (loaded[0] < ids.length) {
+                ids[loaded[0]] = rs.getInt(1);
+                prices[loaded[0]++] = rs.getBigDecimal(2) != null ? rs.getBigDecimal(2) : BigDecimal.ONE;
+            }
+        });
+        productIds = Arrays.copyOf(ids, loaded[0]);
+        productPrices = Arrays.copyOf(prices, loaded[0]);
+
+        long[] users = new long[(int) count("SELECT COUNT(*) FROM users")];
+        loaded[0] = 0;
+        cursor.query("SELECT id FROM users ORDER BY id", rs -> {
+            if (loaded[0] < users.length) {
+                users[loaded[0]++] = rs.getLong(1);
+            }
+        });
+        userIds = Arrays.copyOf(users, loaded[0]);
+    }
+
+    private long count(String sql) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class);
+        return count != null ? count : 0;
+    }
+
+    // Power law over product positions: u^3 < 0.1 for u < 0.464, so the first 10% get ~46% of picks
+    private int popularProduct(Random random) {
+        double u = random.nextDouble();
+        return (int) (productIds.length * u * u * u);
+    }
+
+    private static int geometric(Random random, double p, int max) {
+        int n = 0;
+        while (n < max && random.nextDouble() >= p) {
+            n++;
+        }
+        return n;
+    }
+
+    private static String phone(Random random) {
+        return "+1" + (2000000000L + (long) (random.nextDouble() * 7999999999L));
+    }
+
+    private static int pick(Random random, double[] cdf) {
+        double u = random.nextDouble() * cdf[cdf.length - 1];
+        int index = Arrays.binarySearch(cdf, u);
+        return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+    }
+
+    private static double[] zipfCdf(int n, double exponent) {
+        double[] cumulative = new double[n];
+        double sum = 0;
+        for (int i = 0; i < n; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        return cumulative;
+    }
+}
@@ -1,7 +1,13 @@
 package com.cart.ecom_proj.config;
 
+import com.cart.ecom_proj.service.CatalogVersion;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.web.header.writers.ReferrerPolicyHeaderWriter;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -10,10 +16,29 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 @Configuration
 public class SecurityHeadersConfig {
 
+    // Public catalog reads, revalidated against the catalog version
+    private static final Pattern CATALOG_ROUTES =
+            Pattern.compile("/api/(products(?!/update-images|/stream|/export)(/.*)?|product/\\d+)");
+
+    // Routes whose controllers set their own validators and Cache-Control
+    private static final Pattern SELF_CACHED_ROUTES =
+            Pattern.compile("/api/(product/\\d+/image|products/categories(/.*)?)");
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Value("${app.http.catalog-max-age-seconds:60}")
+    private long catalogMaxAge;
+
+    @Value("${app.http.catalog-stale-while-revalidate-seconds:300}")
+    private long catalogStaleWhileRevalidate;
+
     @Bean
     public OncePerRequestFilter securityHeadersFilter() {
         return new OncePerRequestFilter() {
@@ -64,15 +89,75 @@ public class SecurityHeadersConfig {
                     "fullscreen=(self), " +
                     "sync-xhr=()");
                 
-                // 8. Cache-Control: Prevents caching of sensitive data
-                if (request.getRequestURI().contains("/api/")) {
-                    response.setHeader("Cache-Control", "no-store, no-cache, must-revalidate, proxy-revalidate");
-                    response.setHeader("Pragma", "no-cache");
-                    response.setHeader("Expires", "0");
+                // 8. Cache-Control: public catalog reads are cacheable, everything else is not
+                if (applyCachePolicy(request, response)) {
+                    return;
                 }
                 
                 filterChain.doFilter(request, response);
             }
         };
     }
+
+    /**
+     * Sets the caching headers for the route. Public catalog GETs carry the catalog version
+     * as ETag and Last-Modified with a short shared max-age; other API routes get no-store.
+     * Returns true when the request has been answered with 304 and must not go further.
+     */
+    boolean applyCachePolicy(HttpServletRequest request, HttpServletResponse response) {
+        if (!request.getRequestURI().contains("/api/")) {
+            return false;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        if (SELF_CACHED_ROUTES.matcher(path).matches()) {
+            return false;
+        }
+        boolean safeMethod = HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod());
+        if (!safeMethod || !CATALOG_ROUTES.matcher(path).matches()) {
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store, no-cache, must-revalidate, proxy-revalidate");
+            response.setHeader(HttpHeaders.PRAGMA, "no-cache");
+            response.setHeader(HttpHeaders.EXPIRES, "0");
+            return false;
+        }
+
+        CatalogVersion.Validators validators = catalogVersion.current();
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.maxAge(catalogMaxAge, TimeUnit.SECONDS)
+                .cachePublic()
+                .staleWhileRevalidate(catalogStaleWhileRevalidate, TimeUnit.SECONDS)
+                .getHeaderValue());
+        response.setHeader(HttpHeaders.ETAG, validators.etag());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, validators.lastModified().toEpochMilli());
+        if (isNotModified(request, validators)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return true;
+        }
+        return false;
+    }
+
+    // If-None-Match wins over If-Modified-Since when both are sent (RFC 9110 13.2.2)
+    private static boolean isNotModified(HttpServletRequest request, CatalogVersion.Validators validators) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            String current = opaqueTag(validators.etag());
+            for (String candidate : ifNoneMatch.split(",")) {
+                candidate = candidate.trim();
+                if (candidate.equals("*") || opaqueTag(candidate).equals(current)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        return ifModifiedSince >= 0 && validators.lastModified().toEpochMilli() <= ifModifiedSince;
+    }
+
+    // If-None-Match uses weak comparison, so the W/ prefix is ignored
+    private static String opaqueTag(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
 }
@@ -1,6 +1,10 @@
 package com.cart.ecom_proj.controller;
 
+import com.cart.ecom_proj.dto.CartItemView;
+import com.cart.ecom_proj.dto.CartOperation;
+import com.cart.ecom_proj.dto.CartView;
 import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.CartSummary;
 import com.cart.ecom_proj.service.CartService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -20,10 +24,10 @@ public class CartController {
     private CartService cartService;
     
     @GetMapping("/{userId}")
-    public ResponseEntity<List<Cart>> getUserCart(@PathVariable Long userId) {
+    public ResponseEntity<List<CartItemView>> getUserCart(@PathVariable Long userId) {
         try {
             List<Cart> cartItems = cartService.getUserCart(userId);
-            return new ResponseEntity<>(cartItems, HttpStatus.OK);
+            return new ResponseEntity<>(cartItems.stream().map(CartItemView::of).toList(), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -37,7 +41,7 @@ public class CartController {
             Integer quantity = Integer.valueOf(request.get("quantity").toString());
             
             Cart cartItem = cartService.addToCart(userId, productId, quantity);
-            return new ResponseEntity<>(cartItem, HttpStatus.CREATED);
+            return new ResponseEntity<>(CartItemView.of(cartItem), HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
@@ -66,6 +70,16 @@ public class CartController {
         }
     }
     
+    @PatchMapping("/{userId}")
+    public ResponseEntity<?> updateCart(@PathVariable Long userId, @RequestBody List<CartOperation> operations) {
+        try {
+            CartView cart = cartService.updateCart(userId, operations);
+            return new ResponseEntity<>(cart, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
+        }
+    }
+    
     @DeleteMapping("/{userId}")
     public ResponseEntity<?> clearCart(@PathVariable Long userId) {
         try {
@@ -85,4 +99,15 @@ public class CartController {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
+    
+    @GetMapping("/{userId}/summary")
+    public ResponseEntity<CartSummary> getCartSummary(@PathVariable Long userId,
+                                                      @RequestParam(defaultValue = "false") boolean reconcile) {
+        try {
+            CartSummary summary = cartService.getCartSummary(userId, reconcile);
+            return new ResponseEntity<>(summary, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
 }
@@ -1,5 +1,6 @@
 package com.cart.ecom_proj.controller;
 
+import com.cart.ecom_proj.dto.OrderView;
 import com.cart.ecom_proj.model.Order;
 import com.cart.ecom_proj.service.OrderService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,27 +23,27 @@ public class OrderController {
     public ResponseEntity<?> createOrder(@PathVariable Long userId, @RequestBody Map<String, String> orderDetails) {
         try {
             Order order = orderService.createOrder(userId, orderDetails);
-            return new ResponseEntity<>(order, HttpStatus.CREATED);
+            return new ResponseEntity<>(OrderView.of(order), HttpStatus.CREATED);
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
     }
 
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Order>> getUserOrders(@PathVariable Long userId) {
+    public ResponseEntity<List<OrderView>> getUserOrders(@PathVariable Long userId) {
         try {
             List<Order> orders = orderService.getUserOrders(userId);
-            return new ResponseEntity<>(orders, HttpStatus.OK);
+            return new ResponseEntity<>(orders.stream().map(OrderView::of).toList(), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
     }
 
     @GetMapping("/{orderId}")
-    public ResponseEntity<Order> getOrderById(@PathVariable Long orderId) {
+    public ResponseEntity<OrderView> getOrderById(@PathVariable Long orderId) {
         try {
             Order order = orderService.getOrderById(orderId);
-            return new ResponseEntity<>(order, HttpStatus.OK);
+            return new ResponseEntity<>(OrderView.of(order), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -53,7 +54,7 @@ public class OrderController {
         try {
             String status = request.get("status");
             Order order = orderService.updateOrderStatus(orderId, status);
-            return new ResponseEntity<>(order, HttpStatus.OK);
+            return new ResponseEntity<>(OrderView.of(order), HttpStatus.OK);
         } catch (Exception e) {
             return new ResponseEntity<>(e.getMessage(), HttpStatus.BAD_REQUEST);
         }
@@ -1,22 +1,56 @@
 package com.cart.ecom_proj.controller;
 
+import com.cart.ecom_proj.dto.CategoryCount;
+import com.cart.ecom_proj.dto.CategorySnapshot;
+import com.cart.ecom_proj.dto.FacetedProducts;
+import com.cart.ecom_proj.dto.ImageUpdateJobStatus;
+import com.cart.ecom_proj.dto.ImportReport;
+import com.cart.ecom_proj.dto.ProductCursor;
+import com.cart.ecom_proj.dto.ProductFilter;
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.dto.ProductSummary;
 import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.service.CatalogSnapshotCache;
+import com.cart.ecom_proj.service.CatalogVersion;
+import com.cart.ecom_proj.service.ImageDerivativeService.ImageVariant;
+import com.cart.ecom_proj.service.PlaceholderImageCache;
+import com.cart.ecom_proj.service.ProductExportService;
+import com.cart.ecom_proj.service.ProductImageService;
+import com.cart.ecom_proj.service.ProductImageUpdateService;
+import com.cart.ecom_proj.service.ProductImportService;
 import com.cart.ecom_proj.service.ProductService;
+import com.cart.ecom_proj.service.ProductUpdateStream;
+import com.cart.ecom_proj.util.FileResponseUtil;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @CrossOrigin
@@ -26,18 +60,83 @@ public class ProductController {
     @Autowired
     private ProductService service;
 
+    @Autowired
+    private ProductImageService imageService;
+
+    @Autowired
+    private FileResponseUtil fileResponseUtil;
+
+    @Autowired
+    private PlaceholderImageCache placeholderCache;
+
+    @Autowired
+    private ProductImportService importService;
+
+    @Autowired
+    private ProductExportService exportService;
+
+    @Autowired
+    private ProductImageUpdateService imageUpdateService;
+
+    @Autowired
+    private ProductUpdateStream updateStream;
+
+    @Autowired
+    private CatalogSnapshotCache snapshotCache;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    // Offset pages below this index are served from pre-serialized snapshots
+    @Value("${app.http.snapshot-pages:3}")
+    private int snapshotPages;
+
+    private static final Set<String> SORTABLE_FIELDS = Set.of("id", "name", "brand", "category", "price");
+
+    private static final int MAX_SUGGESTIONS = 20;
+
+    private static final int MAX_SNAPSHOT_PAGE_SIZE = 48;
+
+    // Larger page sizes are clamped rather than rejected, so one request cannot pull the whole catalog
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private static final int MAX_STREAM_IDS = 500;
+
     @GetMapping("/products")
-    public ResponseEntity<Map<String, Object>> getAllProducts(
+    public ResponseEntity<?> getAllProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "12") int size,
             @RequestParam(defaultValue = "id") String sortBy,
-            @RequestParam(defaultValue = "asc") String sortDir) {
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(required = false) String after,
+            HttpServletRequest request) {
 
-        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        if (!SORTABLE_FIELDS.contains(sortBy) || size < 1 || page < 0) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        size = Math.min(size, MAX_PAGE_SIZE);
+        if (after != null) {
+            return getProductsAfter(after, size, sortBy, sortDir.equalsIgnoreCase("desc"));
+        }
 
+        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
         Pageable pageable = PageRequest.of(page, size, sort);
-        Page<Product> productPage = service.getAllProducts(pageable);
 
+        // The first pages are what nearly every visitor loads, so they are built once per catalog version
+        if (page < snapshotPages && size <= MAX_SNAPSHOT_PAGE_SIZE) {
+            String key = "products:" + page + ":" + size + ":" + sort;
+            CatalogSnapshotCache.Snapshot snapshot = snapshotCache.get(key, catalogVersion.current().etag(),
+                    () -> productPage(pageable));
+            return snapshotResponse(ResponseEntity.ok(), snapshot, request);
+        }
+        return new ResponseEntity<>(productPage(pageable), HttpStatus.OK);
+    }
+
+    private Map<String, Object> productPage(Pageable pageable) {
+        return pageResponse(service.getProductSummaries(pageable));
+    }
+
+    private static Map<String, Object> pageResponse(Page<ProductSummary> productPage) {
         Map<String, Object> response = new HashMap<>();
         response.put("products", productPage.getContent());
         response.put("currentPage", productPage.getNumber());
@@ -46,6 +145,54 @@ public class ProductController {
         response.put("pageSize", productPage.getSize());
         response.put("hasNext", productPage.hasNext());
         response.put("hasPrevious", productPage.hasPrevious());
+        return response;
+    }
+
+    /**
+     * Writes pre-serialized JSON, gzipped when the client accepts it. The servlet container
+     * does not compress a response that already carries a Content-Encoding.
+     */
+    private static ResponseEntity<byte[]> snapshotResponse(ResponseEntity.BodyBuilder builder,
+                                                           CatalogSnapshotCache.Snapshot snapshot,
+                                                           HttpServletRequest request) {
+        builder.contentType(MediaType.APPLICATION_JSON).header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (CatalogSnapshotCache.acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(snapshot.gzip());
+        }
+        return builder.body(snapshot.json());
+    }
+
+    /**
+     * Cursor mode ({@code ?after=}, empty for the first page): seeks by (sort value, id)
+     * and skips the count query, so deep pages cost the same as the first one.
+     */
+    private ResponseEntity<Map<String, Object>> getProductsAfter(String after, int size, String sortBy,
+                                                                 boolean descending) {
+        ProductCursor cursor = null;
+        if (!after.isEmpty()) {
+            try {
+                cursor = ProductCursor.decode(after);
+            } catch (IllegalArgumentException e) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+            if (!cursor.sortBy().equals(sortBy) || cursor.descending() != descending) {
+                return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+            }
+        }
+
+        List<ProductSummary> products = service.getProductSummariesAfter(sortBy, descending, cursor, size);
+        boolean hasNext = products.size() > size;
+        if (hasNext) {
+            products = products.subList(0, size);
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("products", products);
+        response.put("pageSize", size);
+        response.put("hasNext", hasNext);
+        response.put("nextCursor", hasNext
+                ? ProductCursor.after(products.get(products.size() - 1), sortBy, descending).encode()
+                : null);
 
         return new ResponseEntity<>(response, HttpStatus.OK);
     }
@@ -74,25 +221,60 @@ public class ProductController {
     }
 
     @GetMapping("/product/{productId}/image")
-    public ResponseEntity<byte[]> getImageByProductId(@PathVariable int productId) {
+    public void getImageByProductId(@PathVariable int productId,
+                                    @RequestParam(required = false) String v,
+                                    @RequestParam(defaultValue = "full") String size,
+                                    HttpServletRequest request,
+                                    HttpServletResponse response) throws IOException {
+
+        ImageVariant variant = ImageVariant.fromParam(size);
+
+        // Versioned URLs name the content directly, so they are served without a product lookup
+        if (v != null && serveStoredImage(v, variant, true, request, response)) {
+            return;
+        }
 
-        Product product = service.getProductById(productId);
-        if (product == null || product.getImageDate() == null || product.getImageDate().length <= 1) {
-            // Return a simple colored placeholder image
-            byte[] placeholderImage = createSimplePlaceholder(product != null ? product.getName() : "Product");
-            return ResponseEntity.ok()
-                    .contentType(MediaType.IMAGE_PNG)
-                    .body(placeholderImage);
+        ProductImageRef image = service.getImageRef(productId);
+        if (image != null && image.imageKey() != null
+                && serveStoredImage(image.imageKey(), variant, image.imageKey().equals(v), request, response)) {
+            return;
         }
 
-        byte[] imageFile = product.getImageDate();
+        // Return a simple colored placeholder image
+        String text = PlaceholderImageCache.displayText(image != null ? image.name() : "Product");
+        PlaceholderImageCache.Placeholder placeholder = placeholderCache.get("simple", text, 200, 150, null,
+                () -> createSimplePlaceholder(text));
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().cachePublic().getHeaderValue());
+        if (!fileResponseUtil.checkNotModified(request, response, placeholder.etag())) {
+            response.setHeader(HttpHeaders.ETAG, placeholder.etag());
+            fileResponseUtil.writeBytes(request, response, placeholder.png(), MediaType.IMAGE_PNG_VALUE);
+        }
+    }
 
-        return ResponseEntity.ok()
-                .contentType(MediaType.valueOf(product.getImageType()))
-                .body(imageFile);
+    private boolean serveStoredImage(String imageKey, ImageVariant variant, boolean versioned,
+                                     HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path file = imageService.locateVariant(imageKey, variant);
+        String etag = "\"" + imageKey + "-" + variant.key() + "\"";
+        boolean immutable = versioned;
+        if (file == null) {
+            // Variant not generated yet (or the original was asked for); a stand-in must not be cached for good
+            file = imageService.locateImage(imageKey);
+            etag = "\"" + imageKey + "\"";
+            immutable = versioned && variant == ImageVariant.FULL;
+        }
+        if (file == null) {
+            return false;
+        }
+        response.setHeader(HttpHeaders.CACHE_CONTROL, immutable
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable().getHeaderValue()
+                : CacheControl.noCache().cachePublic().getHeaderValue());
+        if (!fileResponseUtil.checkNotModified(request, response, etag)) {
+            fileResponseUtil.writeFile(request, response, file, imageService.contentType(file), etag);
+        }
+        return true;
     }
 
-    private byte[] createSimplePlaceholder(String productName) {
+    private byte[] createSimplePlaceholder(String text) {
         try {
             java.awt.image.BufferedImage image = new java.awt.image.BufferedImage(200, 150,
                     java.awt.image.BufferedImage.TYPE_INT_RGB);
@@ -109,7 +291,6 @@ public class ProductController {
             g2d.setColor(java.awt.Color.WHITE);
             g2d.setFont(new java.awt.Font("Arial", java.awt.Font.BOLD, 16));
             java.awt.FontMetrics fm = g2d.getFontMetrics();
-            String text = productName.length() > 20 ? productName.substring(0, 17) + "..." : productName;
             int x = (200 - fm.stringWidth(text)) / 2;
             int y = 80;
             g2d.drawString(text, x, y);
@@ -155,33 +336,204 @@ public class ProductController {
         }
     }
 
+    /**
+     * Best matches first, one page at a time; the full match count is in {@code X-Total-Count}.
+     * Without {@code size} this returns the first 12 matches like the other listings, not every
+     * match as it did before search was paged.
+     */
     @GetMapping("/products/search")
-    public ResponseEntity<List<Product>> searchProducts(@RequestParam String keyword) {
+    public ResponseEntity<List<ProductSummary>> searchProducts(@RequestParam String keyword,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "12") int size) {
         System.out.println("searching with " + keyword);
-        List<Product> products = service.searchProducts(keyword);
-        return new ResponseEntity<>(products, HttpStatus.OK);
+        if (page < 0 || size < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        size = Math.min(size, MAX_PAGE_SIZE);
+        Page<ProductSummary> results = service.searchProducts(keyword, page, size);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(results.getTotalElements()))
+                .body(results.getContent());
+    }
+
+    /**
+     * Combined category/brand/price/availability/keyword filter with facet counts, in one call.
+     * Repeat {@code category} or {@code brand} to match any of several values.
+     */
+    @GetMapping("/products/browse")
+    public ResponseEntity<FacetedProducts> browseProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(required = false) String keyword,
+            @RequestParam(required = false) String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+
+        if ((sortBy != null && !SORTABLE_FIELDS.contains(sortBy)) || page < 0 || size < 1
+                || (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        size = Math.min(size, MAX_PAGE_SIZE);
+
+        ProductFilter filter = new ProductFilter(category, brand, minPrice, maxPrice, available, keyword);
+        FacetedProducts result = service.browseProducts(filter, sortBy, sortDir.equalsIgnoreCase("desc"), page, size);
+        return new ResponseEntity<>(result, HttpStatus.OK);
+    }
+
+    /**
+     * Paged category/brand/price/availability filter answered by the database through the
+     * composite indexes. Unlike {@code /products/browse} it returns no facet counts.
+     */
+    @GetMapping("/products/filter")
+    public ResponseEntity<Map<String, Object>> filterProducts(
+            @RequestParam(required = false) List<String> category,
+            @RequestParam(required = false) List<String> brand,
+            @RequestParam(required = false) BigDecimal minPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "price") String sortBy,
+            @RequestParam(defaultValue = "asc") String sortDir,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "12") int size) {
+
+        if (!SORTABLE_FIELDS.contains(sortBy) || page < 0 || size < 1
+                || (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0)) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        size = Math.min(size, MAX_PAGE_SIZE);
+
+        Sort sort = sortDir.equalsIgnoreCase("desc") ? Sort.by(sortBy).descending() : Sort.by(sortBy).ascending();
+        ProductFilter filter = new ProductFilter(category, brand, minPrice, maxPrice, available, null);
+        Page<ProductSummary> productPage = service.filterProducts(filter, PageRequest.of(page, size, sort));
+        return new ResponseEntity<>(pageResponse(productPage), HttpStatus.OK);
+    }
+
+    /**
+     * Server-sent events with price and stock changes, for the given product ids or the
+     * whole catalog. Updates arrive batched as "products" events; a "resync" event means the
+     * client fell behind and should reload what it shows.
+     */
+    @GetMapping(value = "/products/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamProductUpdates(@RequestParam(required = false) Set<Integer> ids) {
+        if (ids != null && ids.size() > MAX_STREAM_IDS) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        SseEmitter emitter = updateStream.subscribe(ids);
+        if (emitter == null) {
+            return new ResponseEntity<>(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        // Keeps reverse proxies from buffering the stream
+        return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+    }
+
+    @GetMapping("/products/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(@RequestParam String prefix,
+                                                                   @RequestParam(defaultValue = "8") int limit) {
+        if (limit < 1) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<ProductSuggestion> suggestions = service.suggestProducts(prefix, Math.min(limit, MAX_SUGGESTIONS));
+        return new ResponseEntity<>(suggestions, HttpStatus.OK);
     }
 
     @GetMapping("/products/category/{category}")
-    public ResponseEntity<List<Product>> getProductsByCategory(@PathVariable String category) {
+    public ResponseEntity<List<ProductSummary>> getProductsByCategory(@PathVariable String category) {
         System.out.println("Filtering by category: " + category);
-        List<Product> products = service.getProductsByCategory(category);
+        List<ProductSummary> products = service.getProductsByCategory(category);
         return new ResponseEntity<>(products, HttpStatus.OK);
     }
 
+    // Both category endpoints answer If-None-Match with 304 from the ETag without writing a body
     @GetMapping("/products/categories")
-    public ResponseEntity<List<String>> getAllCategories() {
-        List<String> categories = service.getAllCategories();
-        return new ResponseEntity<>(categories, HttpStatus.OK);
+    public ResponseEntity<byte[]> getAllCategories(HttpServletRequest request) {
+        CategorySnapshot categories = service.getCategorySnapshot();
+        CatalogSnapshotCache.Snapshot snapshot = snapshotCache.get("categories", categories.namesEtag(),
+                categories::names);
+        return snapshotResponse(ResponseEntity.ok()
+                .eTag(categories.namesEtag())
+                .cacheControl(CacheControl.noCache().cachePublic()), snapshot, request);
     }
 
-    @PostMapping("/products/update-images")
-    public ResponseEntity<String> updateProductImages() {
-        try {
-            service.updateProductImagesWithRealImages();
-            return new ResponseEntity<>("Product images updated successfully", HttpStatus.OK);
-        } catch (Exception e) {
-            return new ResponseEntity<>("Failed to update images: " + e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
+    @GetMapping("/products/categories/counts")
+    public ResponseEntity<byte[]> getCategoryCounts(HttpServletRequest request) {
+        CategorySnapshot categories = service.getCategorySnapshot();
+        CatalogSnapshotCache.Snapshot snapshot = snapshotCache.get("categories:counts", categories.etag(),
+                categories::categories);
+        return snapshotResponse(ResponseEntity.ok()
+                .eTag(categories.etag())
+                .cacheControl(CacheControl.noCache().cachePublic()), snapshot, request);
+    }
+
+    /**
+     * Whole-catalog feed as NDJSON or CSV, streamed row by row. Images are referenced by URL
+     * unless {@code includeImages} asks for them inline as base64. Requires authentication and
+     * is never cached, since it is a partner feed rather than a storefront read.
+     */
+    @GetMapping("/products/export")
+    public ResponseEntity<StreamingResponseBody> exportProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                                @RequestParam(defaultValue = "false") boolean includeImages) {
+        ProductExportService.Format exportFormat = ProductExportService.Format.of(format);
+        if (exportFormat == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        StreamingResponseBody body = out -> exportService.export(out, exportFormat, includeImages);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"products." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * Bulk import from a CSV or NDJSON file, with an optional zip of the images it references.
+     * Invalid rows are skipped and listed in the report; all other rows are committed.
+     */
+    @PostMapping("/products/import")
+    public ResponseEntity<?> importProducts(@RequestPart MultipartFile file,
+                                            @RequestPart(required = false) MultipartFile bundle) {
+        Path bundlePath = null;
+        try (InputStream in = file.getInputStream()) {
+            if (bundle != null && !bundle.isEmpty()) {
+                // The bundle is read by entry name, which needs random access
+                bundlePath = Files.createTempFile("product-import-", ".zip");
+                bundle.transferTo(bundlePath);
+            }
+            ProductImportService.Format format =
+                    ProductImportService.Format.of(file.getOriginalFilename(), file.getContentType());
+            ImportReport report = importService.importProducts(in, format, bundlePath);
+            return new ResponseEntity<>(report, HttpStatus.OK);
+        } catch (IOException e) {
+            return new ResponseEntity<>("Import failed: " + e.getMessage(), HttpStatus.BAD_REQUEST);
+        } finally {
+            if (bundlePath != null) {
+                try {
+                    Files.deleteIfExists(bundlePath);
+                } catch (IOException e) {
+                    System.err.println("Failed to delete import bundle " + bundlePath);
+                }
+            }
         }
     }
+
+    /**
+     * Starts the background image update and answers 202 with its status; poll the
+     * Location URL for progress.
+     */
+    @PostMapping("/products/update-images")
+    public ResponseEntity<ImageUpdateJobStatus> updateProductImages() {
+        ImageUpdateJobStatus job = imageUpdateService.start();
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/products/update-images/" + job.jobId()))
+                .body(job);
+    }
+
+    @GetMapping("/products/update-images/{jobId}")
+    public ResponseEntity<ImageUpdateJobStatus> getImageUpdateStatus(@PathVariable String jobId) {
+        ImageUpdateJobStatus job = imageUpdateService.status(jobId);
+        return job != null ? new ResponseEntity<>(job, HttpStatus.OK) : new ResponseEntity<>(HttpStatus.NOT_FOUND);
+    }
 }
@@ -0,0 +1,24 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Cart;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A cart line as returned by the cart endpoints. The owning user is implied by the request,
+ * so it is not repeated on every line.
+ */
+public record CartItemView(
+        Long id,
+        ProductRef product,
+        Integer quantity,
+        BigDecimal price,
+        LocalDateTime addedAt,
+        LocalDateTime updatedAt) {
+
+    public static CartItemView of(Cart cart) {
+        return new CartItemView(cart.getId(), ProductRef.of(cart.getProduct()), cart.getQuantity(), cart.getPrice(),
+                cart.getAddedAt(), cart.getUpdatedAt());
+    }
+}
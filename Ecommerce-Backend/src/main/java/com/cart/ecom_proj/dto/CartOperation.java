@@ -0,0 +1,16 @@
+package com.cart.ecom_proj.dto;
+
+/**
+ * One step of a batch cart update. {@code add} increases the quantity of a product, creating
+ * the line if needed; {@code set} replaces it, and a quantity of 0 removes the line;
+ * {@code remove} drops the line. Operations apply in order.
+ */
+public record CartOperation(
+        String op,
+        Integer productId,
+        Integer quantity) {
+
+    public static final String ADD = "add";
+    public static final String SET = "set";
+    public static final String REMOVE = "remove";
+}
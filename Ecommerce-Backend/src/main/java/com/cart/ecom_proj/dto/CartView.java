@@ -0,0 +1,18 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Cart;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * A user's cart lines together with their total, as returned after a batch update.
+ */
+public record CartView(
+        List<CartItemView> items,
+        BigDecimal total) {
+
+    public static CartView of(List<Cart> items, BigDecimal total) {
+        return new CartView(items.stream().map(CartItemView::of).toList(), total);
+    }
+}
@@ -0,0 +1,4 @@
+package com.cart.ecom_proj.dto;
+
+public record CategoryCount(String name, int productCount) {
+}
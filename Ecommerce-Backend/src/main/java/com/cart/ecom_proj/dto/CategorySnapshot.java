@@ -0,0 +1,10 @@
+package com.cart.ecom_proj.dto;
+
+import java.util.List;
+
+/**
+ * Immutable view of the category list, sorted by name, with an ETag for the counted list
+ * and a separate one for the bare names, which change less often.
+ */
+public record CategorySnapshot(List<CategoryCount> categories, List<String> names, String etag, String namesEtag) {
+}
@@ -0,0 +1,31 @@
+package com.cart.ecom_proj.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * One page of filtered products together with the facet counts for the listing sidebar.
+ * Each dimension's counts apply every other selected filter, so they show how many products
+ * picking that value would return.
+ */
+public record FacetedProducts(
+        List<ProductSummary> products,
+        int currentPage,
+        int pageSize,
+        long totalItems,
+        int totalPages,
+        List<FacetCount> categories,
+        List<FacetCount> brands,
+        List<PriceRangeCount> priceRanges,
+        int availableCount) {
+
+    public record FacetCount(String value, int count) {
+    }
+
+    /**
+     * Products priced from {@code min} (inclusive) to {@code max} (exclusive); a null
+     * {@code max} is open-ended.
+     */
+    public record PriceRangeCount(BigDecimal min, BigDecimal max, int count) {
+    }
+}
@@ -0,0 +1,24 @@
+package com.cart.ecom_proj.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Progress of a background product image update. {@code errors} lists the first failures
+ * only; {@code failed} counts all of them. {@code finishedAt} is null while the job runs.
+ */
+public record ImageUpdateJobStatus(
+        String jobId,
+        String state,
+        long total,
+        long processed,
+        long updated,
+        long failed,
+        List<String> errors,
+        Instant startedAt,
+        Instant finishedAt) {
+
+    public static final String RUNNING = "RUNNING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+}
@@ -0,0 +1,18 @@
+package com.cart.ecom_proj.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. {@code errors} lists the first rejected rows only;
+ * {@code failed} counts all of them.
+ */
+public record ImportReport(
+        long rowsRead,
+        long imported,
+        long failed,
+        List<RowError> errors,
+        long elapsedMillis) {
+
+    public record RowError(long row, String message) {
+    }
+}
@@ -0,0 +1,43 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.OrderItem;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * An order as returned by the order endpoints, with compact product references on its
+ * items and without the ordering user's account.
+ */
+public record OrderView(
+        Long id,
+        List<Item> orderItems,
+        BigDecimal totalAmount,
+        Order.OrderStatus status,
+        LocalDateTime orderDate,
+        String shippingAddress,
+        String paymentMethod,
+        String phoneNumber) {
+
+    public record Item(
+            Long id,
+            ProductRef product,
+            Integer quantity,
+            BigDecimal price,
+            BigDecimal totalPrice) {
+
+        public static Item of(OrderItem item) {
+            return new Item(item.getId(), ProductRef.of(item.getProduct()), item.getQuantity(), item.getPrice(),
+                    item.getTotalPrice());
+        }
+    }
+
+    public static OrderView of(Order order) {
+        List<Item> items = order.getOrderItems() == null ? List.of()
+                : order.getOrderItems().stream().map(Item::of).toList();
+        return new OrderView(order.getId(), items, order.getTotalAmount(), order.getStatus(), order.getOrderDate(),
+                order.getShippingAddress(), order.getPaymentMethod(), order.getPhoneNumber());
+    }
+}
@@ -0,0 +1,53 @@
+package com.cart.ecom_proj.dto;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a keyset-paginated product listing: the sort field and direction, plus
+ * the sort value and id of the last row already returned. Clients only ever see the
+ * opaque encoded form.
+ */
+public record ProductCursor(String sortBy, boolean descending, Object lastValue, int lastId) {
+
+    public static ProductCursor after(ProductSummary last, String sortBy, boolean descending) {
+        Object value = switch (sortBy) {
+            case "id" -> null;
+            case "name" -> last.name();
+            case "brand" -> last.brand();
+            case "category" -> last.category();
+            case "price" -> last.price();
+            default -> throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        };
+        return new ProductCursor(sortBy, descending, value, last.id());
+    }
+
+    public String encode() {
+        String value = lastValue == null ? "N" : "V" + (lastValue instanceof BigDecimal decimal
+                ? decimal.toPlainString() : lastValue.toString());
+        String raw = sortBy + '|' + (descending ? "desc" : "asc") + '|' + lastId + '|' + value;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || parts[3].isEmpty()) {
+                throw new IllegalArgumentException("Malformed cursor");
+            }
+            String sortBy = parts[0];
+            boolean descending = parts[1].equals("desc");
+            int lastId = Integer.parseInt(parts[2]);
+            Object value = null;
+            if (parts[3].charAt(0) == 'V') {
+                String text = parts[3].substring(1);
+                value = sortBy.equals("price") ? new BigDecimal(text) : text;
+            }
+            return new ProductCursor(sortBy, descending, value, lastId);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
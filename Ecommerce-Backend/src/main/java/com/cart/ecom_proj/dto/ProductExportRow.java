@@ -0,0 +1,44 @@
+package com.cart.ecom_proj.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.util.Date;
+
+/**
+ * Catalog feed view of a product: every column except the image itself, which is referenced
+ * by URL. Field names match the bulk import columns, so an export can be imported again.
+ */
+public record ProductExportRow(
+        int id,
+        String name,
+        String description,
+        String brand,
+        BigDecimal price,
+        String category,
+        @JsonIgnore Date releaseDate,
+        boolean productAvailable,
+        int stockQuantity,
+        String imageName,
+        String imageType,
+        @JsonIgnore String imageKey,
+        Long imageSize) {
+
+    /**
+     * Release date as yyyy-MM-dd in the server's zone, the way the importer reads it.
+     */
+    @JsonProperty("releaseDate")
+    public String releaseDay() {
+        if (releaseDate == null) {
+            return null;
+        }
+        return new Timestamp(releaseDate.getTime()).toLocalDateTime().toLocalDate().toString();
+    }
+
+    @JsonProperty("imageUrl")
+    public String imageUrl() {
+        return imageKey != null ? ProductSummary.imageUrl(id, imageKey) : null;
+    }
+}
@@ -0,0 +1,43 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Product;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Combined catalog filter. Values within one dimension are OR-ed (any of the listed
+ * categories), dimensions are AND-ed. Null or empty fields do not filter.
+ */
+public record ProductFilter(
+        List<String> categories,
+        List<String> brands,
+        BigDecimal minPrice,
+        BigDecimal maxPrice,
+        Boolean available,
+        String keyword) {
+
+    public boolean hasKeyword() {
+        return keyword != null && !keyword.isBlank();
+    }
+
+    /**
+     * Whether the product passes every part except the keyword, with the same semantics as the
+     * database filter: category and brand compared by filter key, both price bounds inclusive.
+     */
+    public boolean matches(ProductSummary product) {
+        return anyKey(categories, product.category())
+                && anyKey(brands, product.brand())
+                && (minPrice == null || (product.price() != null && product.price().compareTo(minPrice) >= 0))
+                && (maxPrice == null || (product.price() != null && product.price().compareTo(maxPrice) <= 0))
+                && (available == null || product.productAvailable() == available);
+    }
+
+    private static boolean anyKey(List<String> values, String value) {
+        if (values == null || values.isEmpty()) {
+            return true;
+        }
+        String key = Product.filterKey(value);
+        return values.stream().anyMatch(candidate -> Product.filterKey(candidate).equals(key));
+    }
+}
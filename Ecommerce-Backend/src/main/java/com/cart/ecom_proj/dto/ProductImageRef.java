@@ -0,0 +1,7 @@
+package com.cart.ecom_proj.dto;
+
+/**
+ * The few product columns the image endpoint needs to find and label an image.
+ */
+public record ProductImageRef(int id, String name, String imageKey, String imageType) {
+}
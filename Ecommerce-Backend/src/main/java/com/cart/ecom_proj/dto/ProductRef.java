@@ -0,0 +1,30 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * The compact product view embedded in cart lines and order items: enough to label, link
+ * and price a line and to check stock, with the image as a URL rather than inline.
+ */
+public record ProductRef(
+        int id,
+        String name,
+        String brand,
+        BigDecimal price,
+        int stockQuantity,
+        @JsonIgnore String imageKey) {
+
+    @JsonProperty("imageUrl")
+    public String imageUrl() {
+        return ProductSummary.imageUrl(id, imageKey);
+    }
+
+    public static ProductRef of(Product product) {
+        return new ProductRef(product.getId(), product.getName(), product.getBrand(), product.getPrice(),
+                product.getStockQuantity(), product.getImageKey());
+    }
+}
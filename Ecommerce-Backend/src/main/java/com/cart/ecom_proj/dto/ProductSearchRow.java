@@ -0,0 +1,23 @@
+package com.cart.ecom_proj.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The product columns the search index needs: the listing view plus the description it
+ * tokenizes. Read in id order when the index is built.
+ */
+public record ProductSearchRow(
+        int id,
+        String name,
+        String brand,
+        BigDecimal price,
+        String category,
+        boolean productAvailable,
+        int stockQuantity,
+        String imageKey,
+        String description) {
+
+    public ProductSummary summary() {
+        return new ProductSummary(id, name, brand, price, category, productAvailable, stockQuantity, imageKey);
+    }
+}
@@ -0,0 +1,23 @@
+package com.cart.ecom_proj.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * One typeahead entry. Product suggestions carry the product id; brand and category
+ * suggestions carry the number of products filed under them.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductSuggestion(String type, String text, Integer productId, Integer productCount) {
+
+    public static final String PRODUCT = "product";
+    public static final String BRAND = "brand";
+    public static final String CATEGORY = "category";
+
+    public static ProductSuggestion product(int productId, String name) {
+        return new ProductSuggestion(PRODUCT, name, productId, null);
+    }
+
+    public static ProductSuggestion label(String type, String text, int productCount) {
+        return new ProductSuggestion(type, text, null, productCount);
+    }
+}
@@ -0,0 +1,40 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Product;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+
+/**
+ * Catalog listing view of a product. Built straight from a JPQL constructor
+ * expression, so listing queries never select description or image columns.
+ */
+public record ProductSummary(
+        int id,
+        String name,
+        String brand,
+        BigDecimal price,
+        String category,
+        boolean productAvailable,
+        int stockQuantity,
+        @JsonIgnore String imageKey) {
+
+    @JsonProperty("imageUrl")
+    public String imageUrl() {
+        return imageUrl(id, imageKey);
+    }
+
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(product.getId(), product.getName(), product.getBrand(), product.getPrice(),
+                product.getCategory(), product.isProductAvailable(), product.getStockQuantity(), product.getImageKey());
+    }
+
+    /**
+     * Image URL carrying the content key, so clients can cache it as immutable.
+     */
+    public static String imageUrl(int productId, String imageKey) {
+        String url = "/api/product/" + productId + "/image";
+        return imageKey != null ? url + "?v=" + imageKey : url;
+    }
+}
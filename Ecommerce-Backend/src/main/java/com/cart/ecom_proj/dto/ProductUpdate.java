@@ -0,0 +1,31 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.Product;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+
+/**
+ * Live product change pushed to stream subscribers. Field names match {@link ProductSummary},
+ * so clients can merge an update into the product they already hold. Deletes carry only
+ * the id and type.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ProductUpdate(
+        int id,
+        String type,
+        BigDecimal price,
+        Integer stockQuantity,
+        Boolean productAvailable) {
+
+    public static ProductUpdate of(ProductChangedEvent event) {
+        String type = event.type().name().toLowerCase();
+        Product product = event.product();
+        if (product == null) {
+            return new ProductUpdate(event.productId(), type, null, null, null);
+        }
+        return new ProductUpdate(product.getId(), type, product.getPrice(), product.getStockQuantity(),
+                product.isProductAvailable());
+    }
+}
@@ -0,0 +1,8 @@
+package com.cart.ecom_proj.event;
+
+/**
+ * Published after rows were written straight to the product table in bulk, bypassing the
+ * per-product {@link ProductChangedEvent}s, so in-memory views should rebuild from the database.
+ */
+public record CatalogImportedEvent(long imported) {
+}
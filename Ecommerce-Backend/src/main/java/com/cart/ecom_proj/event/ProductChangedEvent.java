@@ -0,0 +1,26 @@
+package com.cart.ecom_proj.event;
+
+import com.cart.ecom_proj.model.Product;
+
+/**
+ * Published whenever a product row is written or removed, so in-memory views of the
+ * catalog can update themselves. {@code product} is the saved state, or null for deletes.
+ */
+public record ProductChangedEvent(Type type, int productId, Product product) {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED
+    }
+
+    public static ProductChangedEvent created(Product product) {
+        return new ProductChangedEvent(Type.CREATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent updated(Product product) {
+        return new ProductChangedEvent(Type.UPDATED, product.getId(), product);
+    }
+
+    public static ProductChangedEvent deleted(int productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null);
+    }
+}
@@ -0,0 +1,102 @@
+package com.cart.ecom_proj.model;
+
+import jakarta.persistence.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Running totals of a user's cart, kept next to the lines in {@code cart_items} so the cart
+ * badge can be read without loading them. Every cart mutation adjusts it in the same
+ * transaction; a missing row is built from the lines before the first mutation.
+ */
+@Entity
+@Table(name = "cart_summaries")
+public class CartSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false)
+    private BigDecimal total = BigDecimal.ZERO;
+
+    @Column(nullable = false)
+    private long itemCount;
+
+    @Column(nullable = false)
+    private long lineCount;
+
+    private LocalDateTime updatedAt = LocalDateTime.now();
+
+    public CartSummary() {
+    }
+
+    public CartSummary(Long userId, BigDecimal total, long itemCount, long lineCount) {
+        this.userId = userId;
+        this.total = total;
+        this.itemCount = itemCount;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Adjusts the totals by the change one mutation made to the lines.
+     */
+    public void add(BigDecimal totalDelta, long itemDelta, long lineDelta) {
+        total = total.add(totalDelta);
+        itemCount += itemDelta;
+        lineCount += lineDelta;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public void reset(BigDecimal total, long itemCount, long lineCount) {
+        this.total = total;
+        this.itemCount = itemCount;
+        this.lineCount = lineCount;
+        updatedAt = LocalDateTime.now();
+    }
+
+    public boolean matches(CartSummary other) {
+        return total.compareTo(other.total) == 0 && itemCount == other.itemCount && lineCount == other.lineCount;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getTotal() {
+        return total;
+    }
+
+    public void setTotal(BigDecimal total) {
+        this.total = total;
+    }
+
+    public long getItemCount() {
+        return itemCount;
+    }
+
+    public void setItemCount(long itemCount) {
+        this.itemCount = itemCount;
+    }
+
+    public long getLineCount() {
+        return lineCount;
+    }
+
+    public void setLineCount(long lineCount) {
+        this.lineCount = lineCount;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
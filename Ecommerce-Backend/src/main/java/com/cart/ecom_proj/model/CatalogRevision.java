@@ -0,0 +1,59 @@
+package com.cart.ecom_proj.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * The single row counting catalog writes across every application instance. Public catalog
+ * responses derive their validators from it, so all instances agree on them.
+ */
+@Entity
+@Table(name = "catalog_revision")
+public class CatalogRevision {
+
+    public static final int ID = 1;
+
+    @Id
+    private int id;
+
+    @Column(nullable = false)
+    private long version;
+
+    // UTC, so instances in different time zones agree on Last-Modified
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+
+    public CatalogRevision() {
+    }
+
+    public CatalogRevision(int id, long version, LocalDateTime updatedAt) {
+        this.id = id;
+        this.version = version;
+        this.updatedAt = updatedAt;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
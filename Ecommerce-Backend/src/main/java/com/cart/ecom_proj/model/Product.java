@@ -1,31 +1,57 @@
 package com.cart.ecom_proj.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 import java.math.BigDecimal;
 import java.util.Date;
+import java.util.Locale;
 
 @Entity
+// Lazy references serialize as the entity, not as the proxy's internals
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
+@Table(indexes = {
+        // Equality on the key, then range or order on price; id makes the order total
+        @Index(name = "idx_product_category_price", columnList = "category_key, price, id"),
+        @Index(name = "idx_product_brand_price", columnList = "brand_key, price, id"),
+        @Index(name = "idx_product_available_price", columnList = "product_available, price, id"),
+        @Index(name = "idx_product_price", columnList = "price, id"),
+        // Keyset pages over the other sort fields seek to (value, id) and read forward
+        @Index(name = "idx_product_name", columnList = "name, id"),
+        @Index(name = "idx_product_brand", columnList = "brand, id"),
+        @Index(name = "idx_product_category", columnList = "category, id"),
+        // Whether any product still refers to an image before its file is deleted
+        @Index(name = "idx_product_image_key", columnList = "image_key")
+})
 public class Product {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private int id;
+    // Natural key for seeded and synced products; never changed by updates
+    @Column(unique = true, updatable = false)
+    private String sku;
     private String name;
     private String description;
     private String brand;
     private BigDecimal price;
     private String category;
 
+    // Normalized copies of category and brand, so filters compare plain indexed columns
+    @JsonIgnore
+    private String categoryKey;
+    @JsonIgnore
+    private String brandKey;
+
     private Date releaseDate;
     private boolean productAvailable;
     private int stockQuantity;
 
     private String imageName;
     private String imageType;
-    @Lob
-    @Column(columnDefinition = "LONGBLOB")
-    private byte[] imageDate;
+    private String imageKey;
+    private Long imageSize;
 
     public int getId() {
         return id;
@@ -35,6 +61,14 @@ public class Product {
         this.id = id;
     }
 
+    public String getSku() {
+        return sku;
+    }
+
+    public void setSku(String sku) {
+        this.sku = sku;
+    }
+
     public String getName() {
         return name;
     }
@@ -115,11 +149,41 @@ public class Product {
         this.imageType = imageType;
     }
 
-    public byte[] getImageDate() {
-        return imageDate;
+    public String getImageKey() {
+        return imageKey;
+    }
+
+    public void setImageKey(String imageKey) {
+        this.imageKey = imageKey;
+    }
+
+    public Long getImageSize() {
+        return imageSize;
+    }
+
+    public void setImageSize(Long imageSize) {
+        this.imageSize = imageSize;
+    }
+
+    public String getCategoryKey() {
+        return categoryKey;
+    }
+
+    public String getBrandKey() {
+        return brandKey;
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateFilterKeys() {
+        categoryKey = filterKey(category);
+        brandKey = filterKey(brand);
     }
 
-    public void setImageDate(byte[] imageDate) {
-        this.imageDate = imageDate;
+    /**
+     * The stored form of category and brand filter values: trimmed and lower case.
+     */
+    public static String filterKey(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
     }
 }
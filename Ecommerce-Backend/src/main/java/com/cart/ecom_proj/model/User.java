@@ -1,9 +1,12 @@
 package com.cart.ecom_proj.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 
 @Entity
 @Table(name = "users")
+// Lazy references serialize as the entity, not as the proxy's internals
+@JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class User {
 
     @Id
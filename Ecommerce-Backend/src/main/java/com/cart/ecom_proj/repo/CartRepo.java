@@ -1,7 +1,9 @@
 package com.cart.ecom_proj.repo;
 
 import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.CartSummary;
 import com.cart.ecom_proj.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -14,10 +16,14 @@ import java.util.Optional;
 
 @Repository
 public interface CartRepo extends JpaRepository<Cart, Long> {
+    // Lines come back with their user and product in the same query instead of one select each
+    @EntityGraph(attributePaths = {"user", "product"})
     List<Cart> findByUser(User user);
 
+    @EntityGraph(attributePaths = {"user", "product"})
     List<Cart> findByUserId(Long userId);
 
+    @EntityGraph(attributePaths = {"user", "product"})
     @Query("SELECT c FROM Cart c WHERE c.user = :user AND c.product.id = :productId")
     Optional<Cart> findByUserAndProductId(@Param("user") User user, @Param("productId") Integer productId);
 
@@ -26,6 +32,10 @@ public interface CartRepo extends JpaRepository<Cart, Long> {
     @Query("DELETE FROM Cart c WHERE c.user = :user AND c.product.id = :productId")
     void deleteByUserAndProductId(@Param("user") User user, @Param("productId") Integer productId);
 
+    @Query("SELECT new com.cart.ecom_proj.model.CartSummary(:userId, COALESCE(SUM(c.price * c.quantity), 0), "
+            + "COALESCE(SUM(c.quantity), 0), COUNT(c)) FROM Cart c WHERE c.user.id = :userId")
+    CartSummary summarize(@Param("userId") Long userId);
+
     @Modifying
     @Transactional
     void deleteByUser(User user);
@@ -0,0 +1,31 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.model.CartSummary;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface CartSummaryRepo extends JpaRepository<CartSummary, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM CartSummary s WHERE s.userId = :userId")
+    Optional<CartSummary> findForUpdate(@Param("userId") Long userId);
+
+    // Recomputes the totals from cart_items, for lines changed without adjusting the summary
+    @Modifying
+    @Transactional
+    @Query("UPDATE CartSummary s SET "
+            + "s.total = (SELECT COALESCE(SUM(c.price * c.quantity), 0) FROM Cart c WHERE c.user.id = s.userId), "
+            + "s.itemCount = (SELECT COALESCE(SUM(c.quantity), 0) FROM Cart c WHERE c.user.id = s.userId), "
+            + "s.lineCount = (SELECT COUNT(c) FROM Cart c WHERE c.user.id = s.userId), "
+            + "s.updatedAt = LOCAL DATETIME WHERE s.userId = :userId")
+    int refresh(@Param("userId") Long userId);
+}
@@ -0,0 +1,19 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.model.CatalogRevision;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface CatalogRevisionRepo extends JpaRepository<CatalogRevision, Integer> {
+
+    // Increments in the database, so concurrent writers on different instances never lose a bump
+    @Modifying
+    @Query("UPDATE CatalogRevision r SET r.version = r.version + 1, r.updatedAt = :now WHERE r.id = :id")
+    int increment(@Param("id") int id, @Param("now") LocalDateTime now);
+}
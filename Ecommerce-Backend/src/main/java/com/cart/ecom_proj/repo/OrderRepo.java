@@ -1,12 +1,30 @@
 package com.cart.ecom_proj.repo;
 
 import com.cart.ecom_proj.model.Order;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface OrderRepo extends JpaRepository<Order, Long> {
+    // One query for an order history page: orders, their items and the items' products
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
     List<Order> findByUserIdOrderByOrderDateDesc(Long userId);
+
+    @EntityGraph(attributePaths = {"orderItems", "orderItems.product"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findWithItemsById(@Param("id") Long id);
+
+    // Changes the status column alone; saving a loaded order would merge every item through the cascade
+    @Modifying
+    @Transactional
+    @Query("UPDATE Order o SET o.status = :status WHERE o.id = :id")
+    int updateStatus(@Param("id") Long id, @Param("status") Order.OrderStatus status);
 }
@@ -1,25 +1,121 @@
 package com.cart.ecom_proj.repo;
 
+import com.cart.ecom_proj.dto.CategoryCount;
+import com.cart.ecom_proj.dto.ProductExportRow;
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.dto.ProductSearchRow;
+import com.cart.ecom_proj.dto.ProductSummary;
 import com.cart.ecom_proj.model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Repository
-public interface ProductRepo extends JpaRepository<Product, Integer> {
+public interface ProductRepo extends JpaRepository<Product, Integer>, ProductRepoCustom {
 
-    @Query("SELECT p FROM Product p WHERE " +
+    String SUMMARY_SELECT = "SELECT new com.cart.ecom_proj.dto.ProductSummary(" +
+            "p.id, p.name, p.brand, p.price, p.category, p.productAvailable, p.stockQuantity, p.imageKey) FROM Product p";
+
+    @Query(SUMMARY_SELECT + " WHERE " +
             "LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.brand) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
             "LOWER(p.category) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-    List<Product> searchProducts(String keyword);
+    List<ProductSummary> searchProductSummaries(String keyword);
+
+    /**
+     * {@code categoryKey} must already be normalized with {@link Product#filterKey}.
+     */
+    @Query(SUMMARY_SELECT + " WHERE p.categoryKey = :categoryKey ORDER BY p.price, p.id")
+    List<ProductSummary> findSummariesByCategoryKey(String categoryKey);
+
+    // Grouped by filter key like the facet index, and labelled by the same rule: the trimmed spelling of
+    // the group's lowest id. MIN over the spellings would depend on the column collation.
+    @Query("SELECT new com.cart.ecom_proj.dto.CategoryCount(TRIM(p.category), " +
+            "CAST((SELECT COUNT(q) FROM Product q WHERE q.categoryKey = p.categoryKey) AS Integer)) " +
+            "FROM Product p WHERE p.id IN (SELECT MIN(q.id) FROM Product q " +
+            "WHERE q.categoryKey IS NOT NULL AND q.categoryKey <> '' GROUP BY q.categoryKey)")
+    List<CategoryCount> countByCategory();
+
+    /**
+     * Fills the filter keys of rows written before the columns existed. Returns the rows updated.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Product p SET p.categoryKey = LOWER(TRIM(p.category)), p.brandKey = LOWER(TRIM(p.brand)) " +
+            "WHERE (p.categoryKey IS NULL AND p.category IS NOT NULL) OR (p.brandKey IS NULL AND p.brand IS NOT NULL)")
+    int backfillFilterKeys();
+
+    @Query(value = SUMMARY_SELECT, countQuery = "SELECT COUNT(p) FROM Product p")
+    Page<ProductSummary> findAllSummaries(Pageable pageable);
+
+    @Query("SELECT new com.cart.ecom_proj.dto.ProductImageRef(p.id, p.name, p.imageKey, p.imageType) " +
+            "FROM Product p WHERE p.id = :id")
+    Optional<ProductImageRef> findImageRefById(int id);
+
+    /**
+     * The next batch of image refs after {@code afterId} in id order, for jobs that walk the catalog.
+     */
+    @Query("SELECT new com.cart.ecom_proj.dto.ProductImageRef(p.id, p.name, p.imageKey, p.imageType) " +
+            "FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductImageRef> findImageRefsAfter(int afterId, Pageable limit);
+
+    /**
+     * Up to {@code limit} summaries after {@code afterId} in id order. The in-memory indexes page
+     * through the catalog with this, so every batch is an index range scan on the primary key.
+     */
+    @Query(SUMMARY_SELECT + " WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSummary> findSummariesAfter(int afterId, Pageable limit);
+
+    @Query("SELECT new com.cart.ecom_proj.dto.ProductSearchRow(p.id, p.name, p.brand, p.price, p.category, " +
+            "p.productAvailable, p.stockQuantity, p.imageKey, p.description) " +
+            "FROM Product p WHERE p.id > :afterId ORDER BY p.id")
+    List<ProductSearchRow> findSearchRowsAfter(int afterId, Pageable limit);
+
+    // Typeahead until the suggest index has been built
+    @Query(SUMMARY_SELECT + " WHERE LOWER(p.name) LIKE LOWER(CONCAT(:prefix, '%')) ORDER BY p.name, p.id")
+    List<ProductSummary> findSummariesByNamePrefix(String prefix, Pageable limit);
+
+    @Query("SELECT p.sku FROM Product p WHERE p.sku IN :skus")
+    Set<String> findExistingSkus(Collection<String> skus);
+
+    // Sample products seeded before they had SKUs
+    @Query("SELECT p.name FROM Product p WHERE p.sku IS NULL AND p.name IN :names")
+    Set<String> findNamesWithoutSku(Collection<String> names);
+
+    /**
+     * Gives one row that has no SKU yet the given one. Native, because the mapping never
+     * updates the column.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE product SET sku = :sku WHERE sku IS NULL AND name = :name AND brand = :brand " +
+            "ORDER BY id LIMIT 1", nativeQuery = true)
+    int backfillSku(String sku, String name, String brand);
 
-    @Query("SELECT p FROM Product p WHERE LOWER(p.category) = LOWER(:category)")
-    List<Product> findByCategory(String category);
+    boolean existsByImageKey(String imageKey);
 
-    @Query("SELECT DISTINCT p.category FROM Product p ORDER BY p.category")
-    List<String> findAllCategories();
+    /**
+     * Forward-only DTO stream over the whole catalog for exports. Must be consumed inside a
+     * transaction and closed; the fetch size keeps the driver from buffering every row, which
+     * MySQL Connector/J only honours with {@code useCursorFetch=true} on the datasource URL.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("SELECT new com.cart.ecom_proj.dto.ProductExportRow(p.id, p.name, p.description, p.brand, p.price, " +
+            "p.category, p.releaseDate, p.productAvailable, p.stockQuantity, p.imageName, p.imageType, " +
+            "p.imageKey, p.imageSize) FROM Product p ORDER BY p.id")
+    Stream<ProductExportRow> streamExportRows();
 }
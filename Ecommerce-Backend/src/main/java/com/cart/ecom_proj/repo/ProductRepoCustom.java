@@ -0,0 +1,25 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.dto.ProductCursor;
+import com.cart.ecom_proj.dto.ProductFilter;
+import com.cart.ecom_proj.dto.ProductSummary;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public interface ProductRepoCustom {
+
+    /**
+     * Keyset page: seeks past the cursor by (sort value, id) instead of using OFFSET,
+     * and runs no count query. A null cursor starts from the beginning.
+     */
+    List<ProductSummary> findSummariesAfter(String sortBy, boolean descending, ProductCursor cursor, int limit);
+
+    /**
+     * Offset page of products matching the category, brand, price and availability parts of
+     * the filter (the keyword is not used), compared against the normalized key columns so
+     * each condition can use the composite indexes.
+     */
+    Page<ProductSummary> filterSummaries(ProductFilter filter, Pageable pageable);
+}
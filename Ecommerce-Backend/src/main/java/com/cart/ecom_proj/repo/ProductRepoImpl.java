@@ -0,0 +1,131 @@
+package com.cart.ecom_proj.repo;
+
+import com.cart.ecom_proj.dto.ProductCursor;
+import com.cart.ecom_proj.dto.ProductFilter;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.model.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class ProductRepoImpl implements ProductRepoCustom {
+
+    // Each one has a (field, id) index on Product, so a keyset page is a range scan
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("id", "name", "brand", "category", "price");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findSummariesAfter(String sortBy, boolean descending, ProductCursor cursor, int limit) {
+        if (!KEYSET_SORT_FIELDS.contains(sortBy)) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortBy);
+        }
+        String column = "p." + sortBy;
+        String direction = descending ? "DESC" : "ASC";
+        String comparison = descending ? "<" : ">";
+
+        StringBuilder jpql = new StringBuilder(ProductRepo.SUMMARY_SELECT);
+        if (cursor != null) {
+            jpql.append(" WHERE ");
+            if (sortBy.equals("id")) {
+                jpql.append("p.id ").append(comparison).append(" :lastId");
+            } else if (cursor.lastValue() == null) {
+                // MySQL sorts NULL lowest: NULL rows come first ascending and last descending
+                jpql.append(descending
+                        ? "(" + column + " IS NULL AND p.id < :lastId)"
+                        : "((" + column + " IS NULL AND p.id > :lastId) OR " + column + " IS NOT NULL)");
+            } else {
+                jpql.append("(").append(column).append(' ').append(comparison).append(" :lastValue OR (")
+                        .append(column).append(" = :lastValue AND p.id ").append(comparison).append(" :lastId)")
+                        .append(descending ? " OR " + column + " IS NULL" : "").append(")");
+            }
+        }
+        jpql.append(" ORDER BY ");
+        if (!sortBy.equals("id")) {
+            jpql.append(column).append(' ').append(direction).append(", ");
+        }
+        jpql.append("p.id ").append(direction);
+
+        TypedQuery<ProductSummary> query = entityManager.createQuery(jpql.toString(), ProductSummary.class);
+        if (cursor != null) {
+            query.setParameter("lastId", cursor.lastId());
+            if (!sortBy.equals("id") && cursor.lastValue() != null) {
+                query.setParameter("lastValue", cursor.lastValue());
+            }
+        }
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    @Override
+    public Page<ProductSummary> filterSummaries(ProductFilter filter, Pageable pageable) {
+        StringBuilder where = new StringBuilder(" WHERE 1 = 1");
+        Map<String, Object> parameters = new HashMap<>();
+        if (filter.categories() != null && !filter.categories().isEmpty()) {
+            where.append(" AND p.categoryKey IN :categoryKeys");
+            parameters.put("categoryKeys", filter.categories().stream().map(Product::filterKey).toList());
+        }
+        if (filter.brands() != null && !filter.brands().isEmpty()) {
+            where.append(" AND p.brandKey IN :brandKeys");
+            parameters.put("brandKeys", filter.brands().stream().map(Product::filterKey).toList());
+        }
+        if (filter.available() != null) {
+            where.append(" AND p.productAvailable = :available");
+            parameters.put("available", filter.available());
+        }
+        if (filter.minPrice() != null) {
+            where.append(" AND p.price >= :minPrice");
+            parameters.put("minPrice", filter.minPrice());
+        }
+        if (filter.maxPrice() != null) {
+            where.append(" AND p.price <= :maxPrice");
+            parameters.put("maxPrice", filter.maxPrice());
+        }
+
+        StringBuilder orderBy = new StringBuilder(" ORDER BY ");
+        // The id tie-break follows the leading direction so the index can be read in one direction
+        String idDirection = null;
+        for (Sort.Order order : pageable.getSort()) {
+            if (!KEYSET_SORT_FIELDS.contains(order.getProperty())) {
+                throw new IllegalArgumentException("Unsupported sort field: " + order.getProperty());
+            }
+            if (idDirection == null) {
+                idDirection = order.getDirection().name();
+            }
+            if (order.getProperty().equals("id")) {
+                idDirection = order.getDirection().name();
+                break;
+            }
+            orderBy.append("p.").append(order.getProperty()).append(' ').append(order.getDirection().name())
+                    .append(", ");
+        }
+        orderBy.append("p.id ").append(idDirection != null ? idDirection : "ASC");
+
+        TypedQuery<ProductSummary> query = entityManager.createQuery(
+                ProductRepo.SUMMARY_SELECT + where + orderBy, ProductSummary.class);
+        TypedQuery<Long> countQuery = entityManager.createQuery(
+                "SELECT COUNT(p) FROM Product p" + where, Long.class);
+        parameters.forEach((name, value) -> {
+            query.setParameter(name, value);
+            countQuery.setParameter(name, value);
+        });
+
+        List<ProductSummary> content = query.setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+        // The count is only needed when this page does not show where the results end
+        if (pageable.getOffset() == 0 && content.size() < pageable.getPageSize()) {
+            return new PageImpl<>(content, pageable, content.size());
+        }
+        return new PageImpl<>(content, pageable, countQuery.getSingleResult());
+    }
+}
@@ -1,30 +1,66 @@
 package com.cart.ecom_proj.service;
 
+import com.cart.ecom_proj.dto.CartOperation;
+import com.cart.ecom_proj.dto.CartView;
 import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.CartSummary;
 import com.cart.ecom_proj.model.Product;
 import com.cart.ecom_proj.model.User;
 import com.cart.ecom_proj.repo.CartRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 @Service
 public class CartService {
     
+    private static final String INSERT_SQL = "INSERT INTO cart_items (user_id, product_id, quantity, price, added_at, "
+            + "updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+    
     @Autowired
     private CartRepo cartRepo;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     @Autowired
     private ProductService productService;
     
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private CartSummaryService cartSummaryService;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    // Present only when app.cart.write-behind.enabled is set
+    @Autowired(required = false)
+    private CartStore cartStore;
+    
+    @Value("${app.cart.max-batch-operations:100}")
+    private int maxBatchOperations;
+    
     public List<Cart> getUserCart(Long userId) {
+        if (cartStore != null) {
+            return cartStore.getCart(userId);
+        }
         User user = userService.getUserById(userId);
         if (user == null) {
             throw new RuntimeException("User not found");
@@ -33,6 +69,13 @@ public class CartService {
     }
     
     public Cart addToCart(Long userId, Integer productId, Integer quantity) {
+        if (cartStore != null) {
+            return cartStore.add(userId, productInStock(productId, quantity), quantity);
+        }
+        return mutate(userId, summary -> addLine(summary, userId, productId, quantity));
+    }
+    
+    private Cart addLine(CartSummary summary, Long userId, Integer productId, Integer quantity) {
         User user = userService.getUserById(userId);
         Product product = productService.getProductById(productId);
         
@@ -50,6 +93,7 @@ public class CartService {
             Cart cart = existingCart.get();
             cart.setQuantity(cart.getQuantity() + quantity);
             cart.setUpdatedAt(LocalDateTime.now());
+            summary.add(cart.getPrice().multiply(BigDecimal.valueOf(quantity)), quantity, 0);
             return cartRepo.save(cart);
         } else {
             Cart newCart = new Cart();
@@ -57,51 +101,260 @@ public class CartService {
             newCart.setProduct(product);
             newCart.setQuantity(quantity);
             newCart.setPrice(product.getPrice());
+            summary.add(newCart.getPrice().multiply(BigDecimal.valueOf(quantity)), quantity, 1);
             return cartRepo.save(newCart);
         }
     }
     
     public void removeFromCart(Long userId, Integer productId) {
-        User user = userService.getUserById(userId);
-        if (user == null) {
-            throw new RuntimeException("User not found");
+        if (cartStore != null) {
+            cartStore.remove(userId, productId);
+            return;
         }
-        cartRepo.deleteByUserAndProductId(user, productId);
+        mutate(userId, summary -> {
+            User user = userService.getUserById(userId);
+            if (user == null) {
+                throw new RuntimeException("User not found");
+            }
+            Optional<Cart> cart = cartRepo.findByUserAndProductId(user, productId);
+            if (cart.isPresent()) {
+                Cart cartItem = cart.get();
+                cartRepo.delete(cartItem);
+                summary.add(cartItem.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())).negate(),
+                        -cartItem.getQuantity(), -1);
+            }
+            return null;
+        });
     }
     
     public void updateCartQuantity(Long userId, Integer productId, Integer quantity) {
-        User user = userService.getUserById(userId);
-        Product product = productService.getProductById(productId);
-        
-        if (user == null || product == null) {
-            throw new RuntimeException("User or product not found");
+        if (cartStore != null) {
+            productInStock(productId, quantity);
+            cartStore.setQuantity(userId, productId, quantity);
+            return;
         }
-        
-        if (product.getStockQuantity() < quantity) {
-            throw new RuntimeException("Insufficient stock");
+        mutate(userId, summary -> {
+            User user = userService.getUserById(userId);
+            Product product = productService.getProductById(productId);
+            
+            if (user == null || product == null) {
+                throw new RuntimeException("User or product not found");
+            }
+            
+            if (product.getStockQuantity() < quantity) {
+                throw new RuntimeException("Insufficient stock");
+            }
+            
+            Optional<Cart> cart = cartRepo.findByUserAndProductId(user, productId);
+            if (cart.isPresent()) {
+                Cart cartItem = cart.get();
+                int change = quantity - cartItem.getQuantity();
+                summary.add(cartItem.getPrice().multiply(BigDecimal.valueOf(change)), change, 0);
+                cartItem.setQuantity(quantity);
+                cartItem.setUpdatedAt(LocalDateTime.now());
+                cartRepo.save(cartItem);
+            }
+            return null;
+        });
+    }
+    
+    public void clearCart(Long userId) {
+        if (cartStore != null) {
+            cartStore.clear(userId);
+            return;
         }
-        
-        Optional<Cart> cart = cartRepo.findByUserAndProductId(user, productId);
-        if (cart.isPresent()) {
-            Cart cartItem = cart.get();
-            cartItem.setQuantity(quantity);
-            cartItem.setUpdatedAt(LocalDateTime.now());
-            cartRepo.save(cartItem);
+        mutate(userId, summary -> {
+            User user = userService.getUserById(userId);
+            if (user == null) {
+                throw new RuntimeException("User not found");
+            }
+            cartRepo.deleteByUser(user);
+            summary.reset(BigDecimal.ZERO, 0, 0);
+            return null;
+        });
+    }
+    
+    public BigDecimal getCartTotal(Long userId) {
+        if (cartStore != null) {
+            return cartStore.total(userId);
         }
+        return cartSummaryService.get(userId).getTotal();
     }
     
-    public void clearCart(Long userId) {
+    /**
+     * Returns the maintained totals, or with {@code reconcile} recomputes them from the cart
+     * lines first and corrects the stored ones if they drifted.
+     */
+    public CartSummary getCartSummary(Long userId, boolean reconcile) {
+        if (cartStore != null) {
+            return cartStore.summary(userId);
+        }
+        return reconcile ? cartSummaryService.reconcile(userId) : cartSummaryService.get(userId);
+    }
+    
+    /**
+     * Applies a list of cart operations as one unit: every referenced product is loaded and
+     * stock-checked in one query before anything changes, and the resulting deletes, updates
+     * and inserts are written as batches in a single transaction.
+     */
+    public CartView updateCart(Long userId, List<CartOperation> operations) {
+        if (cartStore != null) {
+            List<Cart> items = cartStore.apply(userId, operations, productsFor(operations));
+            return CartView.of(items, total(items));
+        }
+        return mutate(userId, summary -> applyToLines(summary, userId, operations));
+    }
+    
+    private CartView applyToLines(CartSummary summary, Long userId, List<CartOperation> operations) {
+        Map<Integer, Product> products = productsFor(operations);
         User user = userService.getUserById(userId);
         if (user == null) {
             throw new RuntimeException("User not found");
         }
-        cartRepo.deleteByUser(user);
+        Map<Integer, Cart> lines = new LinkedHashMap<>();
+        for (Cart line : cartRepo.findByUser(user)) {
+            lines.put(line.getProduct().getId(), line);
+        }
+        Map<Integer, Cart> before = new HashMap<>(lines);
+        Set<Integer> touched = applyOperations(user, lines, operations, products);
+        
+        // Changed lines that already existed are managed and updated on flush
+        List<Cart> removed = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+        for (Integer productId : touched) {
+            Cart line = lines.get(productId);
+            Cart previous = before.get(productId);
+            if (previous != null && previous != line) {
+                removed.add(previous);
+            }
+            if (line != null && line.getId() == null) {
+                inserts.add(new Object[]{user.getId(), productId, line.getQuantity(), line.getPrice(),
+                        Timestamp.valueOf(line.getAddedAt()), Timestamp.valueOf(line.getUpdatedAt())});
+            }
+        }
+        cartRepo.deleteAll(removed);
+        // Identity ids keep Hibernate from batching inserts, so new lines go through JDBC
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        List<Cart> items = cartRepo.findByUser(user);
+        BigDecimal total = total(items);
+        summary.reset(total, items.stream().mapToLong(Cart::getQuantity).sum(), items.size());
+        return CartView.of(items, total);
     }
     
-    public BigDecimal getCartTotal(Long userId) {
-        List<Cart> cartItems = getUserCart(userId);
-        return cartItems.stream()
+    /**
+     * Applies the operations to a cart held as lines by product id and returns the ids of
+     * every product they touched. Products for add and set operations must be in
+     * {@code products}. Removing a line and adding the product again creates a new line.
+     */
+    static Set<Integer> applyOperations(User user, Map<Integer, Cart> lines, List<CartOperation> operations,
+                                        Map<Integer, Product> products) {
+        Set<Integer> touched = new LinkedHashSet<>();
+        for (CartOperation operation : operations) {
+            Integer productId = operation.productId();
+            Cart line = lines.get(productId);
+            switch (operation.op()) {
+                case CartOperation.ADD -> {
+                    if (line == null) {
+                        lines.put(productId, newLine(user, products.get(productId), operation.quantity()));
+                    } else {
+                        line.setQuantity(line.getQuantity() + operation.quantity());
+                        line.setUpdatedAt(LocalDateTime.now());
+                    }
+                }
+                case CartOperation.SET -> {
+                    if (operation.quantity() == 0) {
+                        lines.remove(productId);
+                    } else if (line == null) {
+                        lines.put(productId, newLine(user, products.get(productId), operation.quantity()));
+                    } else {
+                        line.setQuantity(operation.quantity());
+                        line.setUpdatedAt(LocalDateTime.now());
+                    }
+                }
+                default -> lines.remove(productId);
+            }
+            touched.add(productId);
+        }
+        return touched;
+    }
+    
+    // Creates the user's summary before the mutation's transaction starts, then runs the
+    // mutation in one transaction whose first statement locks it
+    private <T> T mutate(Long userId, Function<CartSummary, T> mutation) {
+        cartSummaryService.ensure(userId);
+        return transactionTemplate.execute(status -> mutation.apply(cartSummaryService.lock(userId)));
+    }
+    
+    static BigDecimal total(List<Cart> items) {
+        return items.stream()
                 .map(item -> item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
     }
+    
+    private static Cart newLine(User user, Product product, int quantity) {
+        Cart line = new Cart();
+        line.setUser(user);
+        line.setProduct(product);
+        line.setQuantity(quantity);
+        line.setPrice(product.getPrice());
+        return line;
+    }
+    
+    // Validates the whole batch and loads the products it adds or sets in one query
+    private Map<Integer, Product> productsFor(List<CartOperation> operations) {
+        if (operations == null || operations.isEmpty()) {
+            throw new RuntimeException("No cart operations given");
+        }
+        if (operations.size() > maxBatchOperations) {
+            throw new RuntimeException("At most " + maxBatchOperations + " cart operations per request");
+        }
+        Set<Integer> productIds = new LinkedHashSet<>();
+        for (CartOperation operation : operations) {
+            if (operation.productId() == null) {
+                throw new RuntimeException("Cart operation without productId");
+            }
+            if (CartOperation.REMOVE.equals(operation.op())) {
+                continue;
+            }
+            boolean add = CartOperation.ADD.equals(operation.op());
+            if (!add && !CartOperation.SET.equals(operation.op())) {
+                throw new RuntimeException("Unknown cart operation: " + operation.op());
+            }
+            if (operation.quantity() == null || operation.quantity() < (add ? 1 : 0)) {
+                throw new RuntimeException("Invalid quantity for product " + operation.productId());
+            }
+            productIds.add(operation.productId());
+        }
+        
+        Map<Integer, Product> products = new HashMap<>();
+        for (Product product : productService.getProductsByIds(productIds)) {
+            products.put(product.getId(), product);
+        }
+        for (CartOperation operation : operations) {
+            if (CartOperation.REMOVE.equals(operation.op())) {
+                continue;
+            }
+            Product product = products.get(operation.productId());
+            if (product == null) {
+                throw new RuntimeException("Product not found: " + operation.productId());
+            }
+            if (product.getStockQuantity() < operation.quantity()) {
+                throw new RuntimeException("Insufficient stock for product: " + product.getName());
+            }
+        }
+        return products;
+    }
+    
+    private Product productInStock(Integer productId, Integer quantity) {
+        Product product = productService.getProductById(productId);
+        if (product == null) {
+            throw new RuntimeException("User or product not found");
+        }
+        if (product.getStockQuantity() < quantity) {
+            throw new RuntimeException("Insufficient stock");
+        }
+        return product;
+    }
 }
@@ -0,0 +1,438 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.CartOperation;
+import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.CartSummary;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.model.User;
+import com.cart.ecom_proj.repo.CartRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind cart engine, enabled with {@code app.cart.write-behind.enabled=true}.
+ * <p>
+ * A user's cart is loaded from {@code cart_items} on first access and then kept in memory;
+ * mutations only touch that copy and mark the changed lines dirty, so a cart click costs a
+ * lock and a map update instead of several database round trips. Carts are guarded by a
+ * fixed set of lock stripes chosen by user id, so users never contend unless they share a
+ * stripe. Every {@code app.cart.write-behind.flush-interval-ms} the flusher writes the latest
+ * state of each dirty line, however many times it changed, as batched inserts, updates and
+ * deletes in their own transactions. A failed batch stays dirty and is retried on the next
+ * flush. Shutdown drains everything still pending; a process that dies without shutting
+ * down loses at most one flush interval of cart changes.
+ */
+@Service
+@ConditionalOnProperty(name = "app.cart.write-behind.enabled", havingValue = "true")
+// Destroyed before JPA shuts down, so the final flush still has a transaction manager to use
+@DependsOn("entityManagerFactory")
+public class CartStore {
+
+    private static final String INSERT_SQL = "INSERT INTO cart_items (user_id, product_id, quantity, price, added_at, "
+            + "updated_at) VALUES (?, ?, ?, ?, ?, ?)";
+
+    private static final String UPDATE_SQL = "UPDATE cart_items SET quantity = ?, price = ?, updated_at = ? "
+            + "WHERE user_id = ? AND product_id = ?";
+
+    private static final String DELETE_SQL = "DELETE FROM cart_items WHERE user_id = ? AND product_id = ?";
+
+    // The in-memory cart is the summary while it is enabled; stored rows follow the lines so
+    // they are right again if it is turned off
+    private static final String REFRESH_SUMMARY_SQL = "UPDATE cart_summaries s SET "
+            + "total = (SELECT COALESCE(SUM(c.price * c.quantity), 0) FROM cart_items c WHERE c.user_id = s.user_id), "
+            + "item_count = (SELECT COALESCE(SUM(c.quantity), 0) FROM cart_items c WHERE c.user_id = s.user_id), "
+            + "line_count = (SELECT COUNT(*) FROM cart_items c WHERE c.user_id = s.user_id), "
+            + "updated_at = ? WHERE s.user_id = ?";
+
+    private enum Op { INSERT, UPDATE, DELETE }
+
+    private record Change(long userId, int productId, Op op, Integer quantity, BigDecimal price,
+                          LocalDateTime addedAt, LocalDateTime updatedAt) {
+    }
+
+    // Guarded by the stripe lock of its user
+    private static final class UserCart {
+        final User user;
+        final Map<Integer, Cart> items = new LinkedHashMap<>();
+        // Products that have a row in cart_items, so the flusher knows insert from update
+        final Set<Integer> persisted = new HashSet<>();
+        final Set<Integer> dirty = new HashSet<>();
+        long lastAccess = System.currentTimeMillis();
+
+        UserCart(User user) {
+            this.user = user;
+        }
+    }
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final Map<Long, UserCart> carts = new ConcurrentHashMap<>();
+    private final Object[] stripes;
+    // One flush at a time, so a batch commits before the next one reads the persisted sets
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final TransactionTemplate flushTransaction;
+    private final int batchSize;
+    private final long idleMillis;
+    private final long flushIntervalMillis;
+    private final MeterRegistry registry;
+    private final ScheduledExecutorService flusher;
+
+    public CartStore(@Value("${app.cart.write-behind.stripes:64}") int stripes,
+                     @Value("${app.cart.write-behind.flush-interval-ms:500}") long flushIntervalMillis,
+                     @Value("${app.cart.write-behind.batch-size:500}") int batchSize,
+                     @Value("${app.cart.write-behind.idle-seconds:900}") long idleSeconds,
+                     PlatformTransactionManager transactionManager,
+                     MeterRegistry registry) {
+        this.stripes = new Object[Integer.highestOneBit(Math.max(1, stripes - 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Object();
+        }
+        this.batchSize = batchSize;
+        this.idleMillis = TimeUnit.SECONDS.toMillis(idleSeconds);
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.registry = registry;
+        // Never joins a caller's transaction: a rolled back order must not undo flushed cart lines
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cart-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // After injection rather than in the constructor, so the flusher and the gauges never see
+    // a half-built store
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        Gauge.builder("cart.store.users", carts, Map::size).register(registry);
+        Gauge.builder("cart.store.dirty", this, CartStore::dirtyCount).register(registry);
+    }
+
+    public List<Cart> getCart(Long userId) {
+        synchronized (stripe(userId)) {
+            UserCart cart = load(userId);
+            List<Cart> lines = new ArrayList<>(cart.items.size());
+            for (Cart line : cart.items.values()) {
+                lines.add(copy(line, currentProduct(line)));
+            }
+            return lines;
+        }
+    }
+
+    public Cart add(Long userId, Product product, int quantity) {
+        synchronized (stripe(userId)) {
+            UserCart cart = load(userId);
+            Cart line = cart.items.get(product.getId());
+            if (line == null) {
+                line = new Cart();
+                line.setUser(cart.user);
+                line.setProduct(product);
+                line.setQuantity(quantity);
+                line.setPrice(product.getPrice());
+                cart.items.put(product.getId(), line);
+            } else {
+                line.setQuantity(line.getQuantity() + quantity);
+                line.setUpdatedAt(LocalDateTime.now());
+            }
+            cart.dirty.add(product.getId());
+            return copy(line, product);
+        }
+    }
+
+    /**
+     * Applies a validated batch of operations atomically with respect to other requests for
+     * the same user and returns the resulting cart.
+     */
+    public List<Cart> apply(Long userId, List<CartOperation> operations, Map<Integer, Product> products) {
+        synchronized (stripe(userId)) {
+            UserCart cart = load(userId);
+            cart.dirty.addAll(CartService.applyOperations(cart.user, cart.items, operations, products));
+            return getCart(userId);
+        }
+    }
+
+    /**
+     * Sets the quantity of a product already in the cart; does nothing if it is not there.
+     */
+    public void setQuantity(Long userId, Integer productId, int quantity) {
+        synchronized (stripe(userId)) {
+            UserCart cart = load(userId);
+            Cart line = cart.items.get(productId);
+            if (line != null) {
+                line.setQuantity(quantity);
+                line.setUpdatedAt(LocalDateTime.now());
+                cart.dirty.add(productId);
+            }
+        }
+    }
+
+    public void remove(Long userId, Integer productId) {
+        synchronized (stripe(userId)) {
+            UserCart cart = load(userId);
+            if (cart.items.remove(productId) != null) {
+                cart.dirty.add(productId);
+            }
+        }
+    }
+
+    public void clear(Long userId) {
+        synchronized (stripe(userId)) {
+            UserCart cart = load(userId);
+            cart.dirty.addAll(cart.items.keySet());
+            cart.items.clear();
+        }
+    }
+
+    public BigDecimal total(Long userId) {
+        synchronized (stripe(userId)) {
+            return load(userId).items.values().stream()
+                    .map(line -> line.getPrice().multiply(BigDecimal.valueOf(line.getQuantity())))
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+        }
+    }
+
+    public CartSummary summary(Long userId) {
+        synchronized (stripe(userId)) {
+            Collection<Cart> lines = load(userId).items.values();
+            return new CartSummary(userId, CartService.total(List.copyOf(lines)),
+                    lines.stream().mapToLong(Cart::getQuantity).sum(), lines.size());
+        }
+    }
+
+    /**
+     * Writes the user's pending changes now, for callers that are about to read
+     * {@code cart_items} directly.
+     */
+    public void flush(Long userId) {
+        flushLock.lock();
+        try {
+            UserCart cart = carts.get(userId);
+            if (cart != null) {
+                write(collect(userId, cart));
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Forgets the user's in-memory cart without writing it, once a change made directly to
+     * {@code cart_items} has committed; the next access reloads it.
+     */
+    public void evict(Long userId) {
+        synchronized (stripe(userId)) {
+            carts.remove(userId);
+        }
+    }
+
+    void flushAll() {
+        flushLock.lock();
+        try {
+            List<Change> changes = new ArrayList<>();
+            long idleBefore = System.currentTimeMillis() - idleMillis;
+            for (Map.Entry<Long, UserCart> entry : carts.entrySet()) {
+                Long userId = entry.getKey();
+                UserCart cart = entry.getValue();
+                List<Change> pending = collect(userId, cart);
+                if (!pending.isEmpty()) {
+                    changes.addAll(pending);
+                    continue;
+                }
+                // Only carts with nothing in flight, so a failed batch always finds its cart again
+                synchronized (stripe(userId)) {
+                    if (cart.dirty.isEmpty() && cart.lastAccess < idleBefore) {
+                        carts.remove(userId, cart);
+                    }
+                }
+            }
+            write(changes);
+        } catch (RuntimeException e) {
+            // Keeps the scheduled flush alive; the failed lines are still dirty
+            System.err.println("Cart flush failed: " + e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    int dirtyCount() {
+        int dirty = 0;
+        for (UserCart cart : carts.values()) {
+            dirty += cart.dirty.size();
+        }
+        return dirty;
+    }
+
+    // Caller holds the stripe lock
+    private UserCart load(Long userId) {
+        UserCart cart = carts.get(userId);
+        if (cart == null) {
+            User user = userService.getUserById(userId);
+            if (user == null) {
+                throw new RuntimeException("User not found");
+            }
+            cart = new UserCart(user);
+            for (Cart row : cartRepo.findByUser(user)) {
+                // Detached copies, so a later flush of the persistence context cannot write them
+                cart.items.put(row.getProduct().getId(), copy(row, row.getProduct()));
+                cart.persisted.add(row.getProduct().getId());
+            }
+            carts.put(userId, cart);
+        }
+        cart.lastAccess = System.currentTimeMillis();
+        return cart;
+    }
+
+    private List<Change> collect(Long userId, UserCart cart) {
+        List<Change> changes = new ArrayList<>();
+        synchronized (stripe(userId)) {
+            for (Integer productId : cart.dirty) {
+                Cart line = cart.items.get(productId);
+                boolean persisted = cart.persisted.contains(productId);
+                if (line != null) {
+                    changes.add(new Change(userId, productId, persisted ? Op.UPDATE : Op.INSERT, line.getQuantity(),
+                            line.getPrice(), line.getAddedAt(), line.getUpdatedAt()));
+                } else if (persisted) {
+                    changes.add(new Change(userId, productId, Op.DELETE, null, null, null, null));
+                }
+            }
+            cart.dirty.clear();
+        }
+        return changes;
+    }
+
+    // Caller holds the flush lock
+    private void write(List<Change> changes) {
+        RuntimeException failure = null;
+        for (int from = 0; from < changes.size(); from += batchSize) {
+            List<Change> batch = changes.subList(from, Math.min(from + batchSize, changes.size()));
+            try {
+                flushTransaction.executeWithoutResult(status -> writeBatch(batch));
+                settle(batch, true);
+            } catch (RuntimeException e) {
+                settle(batch, false);
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void writeBatch(List<Change> batch) {
+        List<Object[]> inserts = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> deletes = new ArrayList<>();
+        Set<Long> users = new HashSet<>();
+        for (Change change : batch) {
+            users.add(change.userId());
+            switch (change.op()) {
+                case INSERT -> inserts.add(new Object[]{change.userId(), change.productId(), change.quantity(),
+                        change.price(), Timestamp.valueOf(change.addedAt()), Timestamp.valueOf(change.updatedAt())});
+                case UPDATE -> updates.add(new Object[]{change.quantity(), change.price(),
+                        Timestamp.valueOf(change.updatedAt()), change.userId(), change.productId()});
+                case DELETE -> deletes.add(new Object[]{change.userId(), change.productId()});
+            }
+        }
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, deletes);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPDATE_SQL, updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, inserts);
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(REFRESH_SUMMARY_SQL, users.stream().map(userId -> new Object[]{now, userId}).toList());
+    }
+
+    // Records committed rows, or puts the lines of a failed batch back for the next flush
+    private void settle(List<Change> batch, boolean committed) {
+        for (Change change : batch) {
+            synchronized (stripe(change.userId())) {
+                UserCart cart = carts.get(change.userId());
+                if (cart == null) {
+                    continue;
+                }
+                if (!committed) {
+                    cart.dirty.add(change.productId());
+                } else if (change.op() == Op.INSERT) {
+                    cart.persisted.add(change.productId());
+                } else if (change.op() == Op.DELETE) {
+                    cart.persisted.remove(change.productId());
+                }
+            }
+        }
+    }
+
+    private Object stripe(long userId) {
+        return stripes[Long.hashCode(userId * 0x9E3779B97F4A7C15L) & (stripes.length - 1)];
+    }
+
+    private Product currentProduct(Cart line) {
+        Product product = productService.getProductById(line.getProduct().getId());
+        return product != null ? product : line.getProduct();
+    }
+
+    private static Cart copy(Cart line, Product product) {
+        Cart copy = new Cart();
+        copy.setId(line.getId());
+        copy.setUser(line.getUser());
+        copy.setProduct(product);
+        copy.setQuantity(line.getQuantity());
+        copy.setPrice(line.getPrice());
+        copy.setAddedAt(line.getAddedAt());
+        copy.setUpdatedAt(line.getUpdatedAt());
+        return copy;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flushAll();
+        int pending = dirtyCount();
+        if (pending > 0) {
+            System.err.println("Cart store shut down with " + pending + " unwritten cart lines");
+        }
+    }
+}
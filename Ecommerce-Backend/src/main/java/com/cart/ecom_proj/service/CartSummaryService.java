@@ -0,0 +1,120 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.model.CartSummary;
+import com.cart.ecom_proj.repo.CartRepo;
+import com.cart.ecom_proj.repo.CartSummaryRepo;
+import com.cart.ecom_proj.repo.UserRepo;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Maintains the per-user {@link CartSummary} row.
+ * <p>
+ * Cart mutations call {@link #ensure} before their transaction starts and {@link #lock} as its
+ * first statement. The row lock serializes mutations of one user's cart, so the deltas they
+ * apply can never race, and it has to come first because MySQL's repeatable-read snapshot is
+ * taken at the first plain read of a transaction. Creating a missing row has to happen outside
+ * that transaction: a locking read that finds no row takes an InnoDB gap lock, and an insert
+ * into the same gap from a second connection would then wait on it until the lock wait
+ * timeout. Rows are only ever created and updated, never deleted, so a row that
+ * {@link #ensure} saw is still there when {@link #lock} reads it.
+ */
+@Service
+public class CartSummaryService {
+
+    @Autowired
+    private CartSummaryRepo summaryRepo;
+
+    @Autowired
+    private CartRepo cartRepo;
+
+    @Autowired
+    private UserRepo userRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private final TransactionTemplate createTransaction;
+
+    public CartSummaryService(PlatformTransactionManager transactionManager) {
+        // Commits the new row on its own, so the caller can lock it right away
+        this.createTransaction = new TransactionTemplate(transactionManager);
+        this.createTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Creates the user's summary from their lines if they have none yet, such as carts written
+     * before the table existed. Must be called outside any transaction that locks it later.
+     */
+    public void ensure(Long userId) {
+        if (!summaryRepo.existsById(userId)) {
+            create(userId);
+        }
+    }
+
+    /**
+     * Locks the user's summary for the rest of the caller's transaction. The row must already
+     * exist; see {@link #ensure}.
+     */
+    public CartSummary lock(Long userId) {
+        return summaryRepo.findForUpdate(userId)
+                .orElseThrow(() -> new RuntimeException("Cart summary not found"));
+    }
+
+    public CartSummary get(Long userId) {
+        ensure(userId);
+        return summaryRepo.findById(userId).orElseThrow(() -> new RuntimeException("Cart summary not found"));
+    }
+
+    /**
+     * Recomputes the summary from the cart lines and corrects the stored row if it drifted,
+     * for example after cart_items was changed outside the cart services.
+     */
+    public CartSummary reconcile(Long userId) {
+        ensure(userId);
+        return transactionTemplate.execute(status -> {
+            CartSummary summary = lock(userId);
+            CartSummary actual = cartRepo.summarize(userId);
+            if (!summary.matches(actual)) {
+                System.err.println("Cart summary for user " + userId + " drifted: stored total "
+                        + summary.getTotal() + ", lines total " + actual.getTotal());
+                summary.reset(actual.getTotal(), actual.getItemCount(), actual.getLineCount());
+            }
+            return summary;
+        });
+    }
+
+    /**
+     * Recomputes the user's summary in place after their lines were changed without it, as
+     * part of the caller's transaction.
+     */
+    public void invalidate(Long userId) {
+        summaryRepo.refresh(userId);
+    }
+
+    // Runs entirely in its own transaction, so it does not start the caller's read snapshot
+    private void create(Long userId) {
+        try {
+            createTransaction.executeWithoutResult(status -> {
+                if (!userRepo.existsById(userId)) {
+                    throw new RuntimeException("User not found");
+                }
+                // persist rather than save: a merge would overwrite a row another request just created
+                entityManager.persist(cartRepo.summarize(userId));
+                entityManager.flush();
+            });
+        } catch (ConstraintViolationException | DataIntegrityViolationException e) {
+            // A concurrent request created it first
+        }
+    }
+}
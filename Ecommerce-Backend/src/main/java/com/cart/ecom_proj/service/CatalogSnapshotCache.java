@@ -0,0 +1,122 @@
+package com.cart.ecom_proj.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Hot catalog payloads (the first listing pages, the category lists) serialized to JSON and
+ * gzipped once per catalog version, so repeat requests are a byte copy instead of a query,
+ * a Jackson pass and a compression pass. Since each payload is compressed once, it is worth
+ * using the best compression level. Snapshots are kept in a bounded LRU, so a burst of
+ * unusual page sizes evicts only the least recently served payloads, not the hot ones.
+ */
+@Service
+public class CatalogSnapshotCache {
+
+    public record Snapshot(String version, byte[] json, byte[] gzip) {
+    }
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final Map<String, Snapshot> snapshots;
+
+    // Covers every key the callers build: 3 pages x 48 sizes x 10 sorts, plus the category lists
+    public CatalogSnapshotCache(@Value("${app.http.snapshot-max-entries:1500}") int maxEntries) {
+        this.snapshots = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the snapshot stored under {@code key} for {@code version}, building it from
+     * {@code payload} when missing or built for another version. Building happens outside
+     * the lock, so serializing one payload never blocks lookups of the others.
+     */
+    public Snapshot get(String key, String version, Supplier<Object> payload) {
+        Snapshot snapshot;
+        synchronized (snapshots) {
+            snapshot = snapshots.get(key);
+        }
+        if (snapshot != null && snapshot.version().equals(version)) {
+            return snapshot;
+        }
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(payload.get());
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize catalog snapshot " + key, e);
+        }
+        snapshot = new Snapshot(version, json, gzip(json));
+        synchronized (snapshots) {
+            snapshots.put(key, snapshot);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Whether an Accept-Encoding header admits gzip: listed with a non-zero q, or covered by
+     * a {@code *} when gzip itself is not listed.
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals("gzip") || name.equals("x-gzip")) {
+                return qualityOf(parts) > 0;
+            }
+            if (name.equals("*")) {
+                wildcard = qualityOf(parts) > 0;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static double qualityOf(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim().toLowerCase(Locale.ROOT);
+            if (param.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(param.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,165 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.event.CatalogImportedEvent;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.CatalogRevision;
+import com.cart.ecom_proj.repo.CatalogRevisionRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Version of the catalog, used as the validator for public catalog responses. It lives in
+ * the {@code catalog_revision} row, so every instance behind the load balancer issues the
+ * same ETag for the same catalog. Catalog writes bump the row after they commit; every
+ * instance re-reads it every {@code app.http.catalog-version-poll-ms}, which bounds how
+ * long an instance that did not see a write can keep answering 304 for the old catalog.
+ * The version never starts over, so validators from before a restart stay meaningful.
+ */
+@Service
+public class CatalogVersion {
+
+    /**
+     * Validators for one catalog version. The ETag is weak because the same version is
+     * served both compressed and uncompressed.
+     */
+    public record Validators(String etag, Instant lastModified) {
+    }
+
+    @Autowired
+    private CatalogRevisionRepo revisionRepo;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.http.catalog-version-poll-ms:1000}")
+    private long pollMillis;
+
+    // Bumps run after the writer's transaction committed, so they and the reads that follow
+    // need one of their own; the writer's persistence context may hold a stale copy of the row
+    private final TransactionTemplate revisionTransaction;
+    private final ScheduledExecutorService poller;
+    private long version;
+    private volatile Validators current = validators(0, Instant.now().truncatedTo(ChronoUnit.SECONDS));
+
+    public CatalogVersion(PlatformTransactionManager transactionManager) {
+        this.revisionTransaction = new TransactionTemplate(transactionManager);
+        this.revisionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "catalog-version-poll");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        refresh();
+        poller.scheduleWithFixedDelay(this::poll, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        bump();
+    }
+
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        bump();
+    }
+
+    public void bump() {
+        Integer updated = revisionTransaction.execute(status ->
+                revisionRepo.increment(CatalogRevision.ID, LocalDateTime.now(ZoneOffset.UTC)));
+        if (updated == null || updated == 0) {
+            create();
+        }
+        refresh();
+    }
+
+    public Validators current() {
+        return current;
+    }
+
+    /**
+     * Re-reads the shared version, creating the row on a fresh database.
+     */
+    public void refresh() {
+        CatalogRevision revision = read();
+        if (revision == null) {
+            create();
+            revision = read();
+            if (revision == null) {
+                throw new RuntimeException("Catalog revision not found");
+            }
+        }
+        update(revision);
+    }
+
+    private CatalogRevision read() {
+        return revisionTransaction.execute(status -> revisionRepo.findById(CatalogRevision.ID).orElse(null));
+    }
+
+    private synchronized void update(CatalogRevision revision) {
+        // A poll that read the row before a concurrent bump must not move the version back
+        if (revision.getVersion() <= version) {
+            return;
+        }
+        version = revision.getVersion();
+        // Last-Modified has one-second resolution; never let it go backwards, even across clock skew
+        Instant updatedAt = revision.getUpdatedAt().toInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.SECONDS);
+        Instant lastModified = updatedAt.isAfter(current.lastModified()) ? updatedAt : current.lastModified();
+        current = validators(version, lastModified);
+    }
+
+    // In its own transaction, so a duplicate key from a concurrent create is simply ignored
+    private void create() {
+        try {
+            revisionTransaction.executeWithoutResult(status -> {
+                // Seeded from the clock, so a recreated database never reuses an old version;
+                // persist rather than save, since a merge would overwrite a row created meanwhile
+                entityManager.persist(new CatalogRevision(CatalogRevision.ID, System.currentTimeMillis(),
+                        LocalDateTime.now(ZoneOffset.UTC)));
+                entityManager.flush();
+            });
+        } catch (ConstraintViolationException | DataIntegrityViolationException e) {
+            // Another instance created it first
+        }
+    }
+
+    private void poll() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            System.err.println("Failed to refresh the catalog version: " + e.getMessage());
+        }
+    }
+
+    private static Validators validators(long version, Instant lastModified) {
+        return new Validators("W/\"catalog-" + version + "\"", lastModified);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+    }
+}
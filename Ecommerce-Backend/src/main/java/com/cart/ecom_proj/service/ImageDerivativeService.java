@@ -0,0 +1,221 @@
+package com.cart.ecom_proj.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Produces resized, recompressed JPEG variants of uploaded images on a small bounded
+ * worker pool, so the request that uploads an image never waits for resizing and
+ * product cards never download the full-resolution original. Originals whose header
+ * declares more pixels than the configured cap are never decoded, since a small
+ * compressed file can expand to gigabytes of raster.
+ */
+@Service
+public class ImageDerivativeService {
+
+    public enum ImageVariant {
+        THUMB(160), CARD(480), FULL(0);
+
+        private final int maxWidth;
+
+        ImageVariant(int maxWidth) {
+            this.maxWidth = maxWidth;
+        }
+
+        public int getMaxWidth() {
+            return maxWidth;
+        }
+
+        public String key() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        /**
+         * Maps the {@code size} request parameter to a variant; unknown values get the original.
+         */
+        public static ImageVariant fromParam(String size) {
+            if (size != null) {
+                for (ImageVariant variant : values()) {
+                    if (variant.key().equalsIgnoreCase(size)) {
+                        return variant;
+                    }
+                }
+            }
+            return FULL;
+        }
+    }
+
+    private static final float JPEG_QUALITY = 0.82f;
+
+    @Autowired
+    private ImageStore imageStore;
+
+    private final long maxPixels;
+
+    private final ThreadPoolExecutor executor;
+
+    // Keys with a generation task queued or running, so repeated requests don't pile up work
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    public ImageDerivativeService(@Value("${app.images.derivative-threads:2}") int threads,
+                                  @Value("${app.images.derivative-queue:200}") int queueSize,
+                                  @Value("${app.images.max-decode-pixels:25000000}") long maxPixels) {
+        this.maxPixels = maxPixels;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), runnable -> {
+                    Thread thread = new Thread(runnable, "image-derivative-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+        ImageIO.setUseCache(false);
+    }
+
+    /**
+     * Queues generation of all resized variants for the image. Returns immediately; if the
+     * queue is full the request is dropped and the variant is retried the next time it is asked for.
+     */
+    public void generateAsync(String imageKey) {
+        if (!ImageStore.isValidKey(imageKey) || !pending.add(imageKey)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(imageKey);
+                } finally {
+                    pending.remove(imageKey);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(imageKey);
+            System.err.println("Image derivative queue full, skipping " + imageKey);
+        }
+    }
+
+    /**
+     * Returns the stored variant, queueing its generation when it does not exist yet.
+     * Null means the caller should fall back to the original.
+     */
+    public Path locateVariant(String imageKey, ImageVariant variant) {
+        if (variant == ImageVariant.FULL) {
+            return null;
+        }
+        Path file = imageStore.locateVariant(imageKey, variant.key());
+        if (file == null && imageStore.locate(imageKey) != null) {
+            generateAsync(imageKey);
+        }
+        return file;
+    }
+
+    void generate(String imageKey) {
+        Path original = imageStore.locate(imageKey);
+        if (original == null) {
+            return;
+        }
+        try {
+            BufferedImage source = decode(original);
+            if (source == null) {
+                // Not decodable or too large; the original keeps being served
+                return;
+            }
+            for (ImageVariant variant : ImageVariant.values()) {
+                if (variant == ImageVariant.FULL || imageStore.locateVariant(imageKey, variant.key()) != null) {
+                    continue;
+                }
+                BufferedImage resized = resize(source, variant.getMaxWidth());
+                imageStore.storeVariant(imageKey, variant.key(), out -> writeJpeg(resized, out));
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed to generate image variants for " + imageKey + " - " + e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the dimensions from the image header and decodes the pixels only when they are
+     * within the cap. Null when no reader handles the format or the image is over the cap.
+     */
+    private BufferedImage decode(Path file) throws IOException {
+        try (ImageInputStream in = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = in != null ? ImageIO.getImageReaders(in) : null;
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(in, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    System.err.println("Skipping image variants for " + file.getFileName() + ": " + reader.getWidth(0)
+                            + "x" + reader.getHeight(0) + " is over the " + maxPixels + " pixel limit");
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage resize(BufferedImage source, int maxWidth) {
+        double scale = Math.min(1.0, (double) maxWidth / source.getWidth());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * scale));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * scale));
+
+        // JPEG has no alpha channel, so transparent areas are flattened onto white
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = target.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+        g2d.drawImage(source, 0, 0, width, height, null);
+        g2d.dispose();
+        return target;
+    }
+
+    private static void writeJpeg(BufferedImage image, OutputStream out) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(JPEG_QUALITY);
+        try (ImageOutputStream imageOut = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(imageOut);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
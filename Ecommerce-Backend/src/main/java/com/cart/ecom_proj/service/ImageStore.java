@@ -0,0 +1,212 @@
+package com.cart.ecom_proj.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed image files on local disk. Each image is stored once under the
+ * SHA-256 of its bytes ({@code <root>/ab/abcdef...}), so files never change after
+ * they are written and the key doubles as a strong ETag.
+ */
+@Service
+public class ImageStore {
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+    private static final int KEY_STRIPES = 64;
+
+    @Value("${app.images.store-dir:image-store}")
+    private Path root;
+
+    // Orders a store against a delete of the same key
+    private final Object[] stripes = new Object[KEY_STRIPES];
+
+    public ImageStore() {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+    }
+
+    public record StoredImage(String key, long size) {
+    }
+
+    /**
+     * Streams the input to a temp file while hashing it, then moves it into place.
+     * Only a copy buffer is held in memory regardless of the image size.
+     */
+    public StoredImage store(InputStream in) throws IOException {
+        Path tmpDir = Files.createDirectories(root.resolve("tmp"));
+        Path tmp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size;
+            try (DigestInputStream digestIn = new DigestInputStream(in, digest);
+                 OutputStream out = Files.newOutputStream(tmp)) {
+                size = digestIn.transferTo(out);
+            }
+            String key = HexFormat.of().formatHex(digest.digest());
+            Path target = pathFor(key);
+            synchronized (stripe(key)) {
+                if (Files.exists(target)) {
+                    // Storing the same bytes again restarts the grace period of deleteIfStoredBefore
+                    Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            return new StoredImage(key, size);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    public StoredImage store(byte[] data) {
+        try {
+            return store(new ByteArrayInputStream(data));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store image", e);
+        }
+    }
+
+    /**
+     * Returns the file for the key, or null if the key is malformed or not stored.
+     */
+    public Path locate(String key) {
+        if (!isValidKey(key)) {
+            return null;
+        }
+        Path file = pathFor(key);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Returns the derived file (e.g. a thumbnail) for the key, or null if it has not been generated.
+     */
+    public Path locateVariant(String key, String variant) {
+        if (!isValidKey(key)) {
+            return null;
+        }
+        Path file = variantPathFor(key, variant);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Writes a derived file through a temp file, so readers never see a partial variant.
+     */
+    public void storeVariant(String key, String variant, ImageWriter writer) throws IOException {
+        Path target = variantPathFor(key, variant);
+        Files.createDirectories(target.getParent());
+        Path tmp = Files.createTempFile(target.getParent(), key, ".part");
+        try {
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                writer.write(out);
+            }
+            Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    @FunctionalInterface
+    public interface ImageWriter {
+        void write(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Deletes the image and its variants unless it was last stored at or after
+     * {@code cutoffMillis}. Runs under the same per-key lock as {@link #store}, so a concurrent
+     * store of the same bytes either refreshes the file before the check or writes it back
+     * after the delete. Returns false when the image was kept.
+     */
+    public boolean deleteIfStoredBefore(String key, long cutoffMillis) {
+        if (!isValidKey(key)) {
+            return true;
+        }
+        synchronized (stripe(key)) {
+            try {
+                Path file = pathFor(key);
+                if (Files.exists(file) && Files.getLastModifiedTime(file).toMillis() >= cutoffMillis) {
+                    return false;
+                }
+                Files.deleteIfExists(file);
+                try (Stream<Path> variants = Files.list(root.resolve("derived"))) {
+                    for (Path variantDir : variants.toList()) {
+                        Files.deleteIfExists(variantDir.resolve(key.substring(0, 2)).resolve(key));
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // No variants generated yet
+            } catch (IOException e) {
+                System.err.println("Failed to delete image " + key + " - " + e.getMessage());
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Works out the image type from the file's magic number, so files can be served
+     * without looking up the product that owns them.
+     */
+    public String contentType(Path file) throws IOException {
+        byte[] head = new byte[12];
+        int read;
+        try (InputStream in = Files.newInputStream(file)) {
+            read = in.readNBytes(head, 0, head.length);
+        }
+        if (read >= 3 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xD8 && (head[2] & 0xFF) == 0xFF) {
+            return "image/jpeg";
+        }
+        if (read >= 4 && (head[0] & 0xFF) == 0x89 && head[1] == 'P' && head[2] == 'N' && head[3] == 'G') {
+            return "image/png";
+        }
+        if (read >= 4 && head[0] == 'G' && head[1] == 'I' && head[2] == 'F' && head[3] == '8') {
+            return "image/gif";
+        }
+        if (read >= 12 && head[0] == 'R' && head[1] == 'I' && head[2] == 'F' && head[3] == 'F'
+                && head[8] == 'W' && head[9] == 'E' && head[10] == 'B' && head[11] == 'P') {
+            return "image/webp";
+        }
+        return "application/octet-stream";
+    }
+
+    public static boolean isValidKey(String key) {
+        return key != null && KEY_PATTERN.matcher(key).matches();
+    }
+
+    private Object stripe(String key) {
+        return stripes[key.hashCode() & (stripes.length - 1)];
+    }
+
+    private Path pathFor(String key) {
+        return root.resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private Path variantPathFor(String key, String variant) {
+        return root.resolve("derived").resolve(variant).resolve(key.substring(0, 2)).resolve(key);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
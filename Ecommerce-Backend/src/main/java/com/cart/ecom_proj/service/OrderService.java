@@ -1,10 +1,14 @@
 package com.cart.ecom_proj.service;
 
+import com.cart.ecom_proj.event.ProductChangedEvent;
 import com.cart.ecom_proj.model.*;
 import com.cart.ecom_proj.repo.*;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -28,8 +32,35 @@ public class OrderService {
     @Autowired
     private ProductRepo productRepo;
 
-    @Transactional
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private CartSummaryService cartSummaryService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Present only when app.cart.write-behind.enabled is set
+    @Autowired(required = false)
+    private CartStore cartStore;
+
+    /**
+     * Places an order for the user's cart. Runs its own transaction rather than joining one:
+     * pending write-behind cart changes have to be committed before that transaction takes its
+     * read snapshot, or the order would not see them.
+     */
     public Order createOrder(Long userId, Map<String, String> orderDetails) {
+        if (cartStore != null) {
+            cartStore.flush(userId);
+        }
+        cartSummaryService.ensure(userId);
+        return transactionTemplate.execute(status -> placeOrder(userId, orderDetails));
+    }
+
+    private Order placeOrder(Long userId, Map<String, String> orderDetails) {
+        // First, so cart mutations of this user wait for the order instead of racing it
+        cartSummaryService.lock(userId);
         User user = userRepo.findById(userId).orElseThrow(() -> new RuntimeException("User not found"));
 
         List<Cart> cartItems = cartRepo.findByUser(user);
@@ -79,10 +110,21 @@ public class OrderService {
                 product.setProductAvailable(false);
             }
             productRepo.save(product);
+            eventPublisher.publishEvent(ProductChangedEvent.updated(product));
         }
 
         // Clear user's cart
         cartRepo.deleteByUser(user);
+        cartSummaryService.invalidate(userId);
+        if (cartStore != null) {
+            // Not before commit: a read in between would reload the lines this order deletes
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cartStore.evict(userId);
+                }
+            });
+        }
 
         return order;
     }
@@ -92,12 +134,17 @@ public class OrderService {
     }
 
     public Order getOrderById(Long orderId) {
-        return orderRepo.findById(orderId).orElseThrow(() -> new RuntimeException("Order not found"));
+        return orderRepo.findWithItemsById(orderId).orElseThrow(() -> new RuntimeException("Order not found"));
     }
 
+    /**
+     * Updates the status with one UPDATE, then reads the order back for the response.
+     */
     public Order updateOrderStatus(Long orderId, String status) {
-        Order order = getOrderById(orderId);
-        order.setStatus(Order.OrderStatus.valueOf(status.toUpperCase()));
-        return orderRepo.save(order);
+        Order.OrderStatus newStatus = Order.OrderStatus.valueOf(status.toUpperCase());
+        if (orderRepo.updateStatus(orderId, newStatus) == 0) {
+            throw new RuntimeException("Order not found");
+        }
+        return getOrderById(orderId);
     }
 }
@@ -0,0 +1,72 @@
+package com.cart.ecom_proj.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.Color;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU of rendered placeholder PNGs. Placeholders only depend on the text
+ * drawn, the size and the colour, so each distinct one is drawn with AWT once and
+ * every later hit is a map lookup returning pre-encoded bytes and their ETag.
+ */
+@Service
+public class PlaceholderImageCache {
+
+    public record Placeholder(byte[] png, String etag) {
+    }
+
+    private final Map<String, Placeholder> cache;
+
+    public PlaceholderImageCache(@Value("${app.images.placeholder-cache-size:512}") int maxEntries) {
+        this.cache = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Placeholder> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached placeholder, rendering it on a miss. Rendering happens outside
+     * the lock, so a slow AWT draw never blocks other lookups.
+     */
+    public Placeholder get(String style, String text, int width, int height, Color color, Supplier<byte[]> renderer) {
+        String key = style + '|' + width + 'x' + height + '|' + (color != null ? color.getRGB() : "") + '|' + text;
+        synchronized (cache) {
+            Placeholder cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        byte[] png = renderer.get();
+        Placeholder placeholder = new Placeholder(png, "\"ph-" + shortHash(png) + "\"");
+        synchronized (cache) {
+            // The put may evict the entry straight away (maxEntries 0), so never read it back
+            Placeholder raced = cache.putIfAbsent(key, placeholder);
+            return raced != null ? raced : placeholder;
+        }
+    }
+
+    /**
+     * The text the placeholders draw: names longer than 20 characters are cut to 17 plus "...".
+     */
+    public static String displayText(String productName) {
+        return productName.length() > 20 ? productName.substring(0, 17) + "..." : productName;
+    }
+
+    private static String shortHash(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+/**
+ * Read-through cache of product entities by id. Bounded by an estimate of the bytes held
+ * rather than by entry count, since descriptions vary a lot in length; least recently used
+ * entries go first, and every entry expires after a TTL as a backstop. Entries are dropped
+ * on every {@link ProductChangedEvent}, which covers catalog edits and stock changes.
+ * <p>
+ * Cached products are shared between callers and must be treated as read-only.
+ */
+@Service
+public class ProductCache {
+
+    // Rough per-entity overhead: object headers, boxed fields, the map entry and the Date
+    private static final int BASE_WEIGHT = 256;
+
+    private record Entry(Product product, int weight, long expiresAt) {
+    }
+
+    private final Map<Integer, Entry> cache = new LinkedHashMap<>(256, 0.75f, true);
+    private final long maxWeight;
+    private final long ttlMillis;
+    private final LongSupplier clock;
+    private long weight;
+    // Bumped on every invalidation; a load that raced with one is not cached
+    private long generation;
+
+    private final MeterRegistry registry;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    @Autowired
+    public ProductCache(@Value("${app.products.cache-max-bytes:16777216}") long maxWeight,
+                        @Value("${app.products.cache-ttl-seconds:300}") long ttlSeconds,
+                        MeterRegistry registry) {
+        this(maxWeight, ttlSeconds * 1000, registry, System::currentTimeMillis);
+    }
+
+    ProductCache(long maxWeight, long ttlMillis, MeterRegistry registry, LongSupplier clock) {
+        this.maxWeight = maxWeight;
+        this.ttlMillis = ttlMillis;
+        this.clock = clock;
+        this.registry = registry;
+        this.hits = Counter.builder("cache.gets").tag("cache", "products").tag("result", "hit").register(registry);
+        this.misses = Counter.builder("cache.gets").tag("cache", "products").tag("result", "miss").register(registry);
+        this.evictions = Counter.builder("cache.evictions").tag("cache", "products").register(registry);
+    }
+
+    // The gauges read the cache, so they are registered once it is fully constructed
+    @PostConstruct
+    void registerGauges() {
+        Gauge.builder("cache.size", this, ProductCache::size).tag("cache", "products").register(registry);
+        Gauge.builder("cache.weight", this, ProductCache::weight).tag("cache", "products")
+                .baseUnit("bytes").register(registry);
+    }
+
+    /**
+     * Returns the cached product, calling {@code loader} on a miss. The loader runs outside
+     * the lock, so a slow query never blocks other lookups; a null result is not cached.
+     */
+    public Product get(int id, IntFunction<Product> loader) {
+        long loadGeneration;
+        synchronized (cache) {
+            Entry entry = cache.get(id);
+            if (entry != null && entry.expiresAt() > clock.getAsLong()) {
+                hits.increment();
+                return entry.product();
+            }
+            if (entry != null) {
+                remove(id);
+            }
+            loadGeneration = generation;
+        }
+        misses.increment();
+
+        Product product = loader.apply(id);
+        if (product == null) {
+            return null;
+        }
+        int productWeight = estimateWeight(product);
+        synchronized (cache) {
+            if (generation == loadGeneration && productWeight <= maxWeight) {
+                remove(id);
+                cache.put(id, new Entry(product, productWeight, clock.getAsLong() + ttlMillis));
+                weight += productWeight;
+                evictToBudget();
+            }
+        }
+        return product;
+    }
+
+    public void invalidate(int id) {
+        synchronized (cache) {
+            generation++;
+            remove(id);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidate(event.productId());
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long weight() {
+        synchronized (cache) {
+            return weight;
+        }
+    }
+
+    static int estimateWeight(Product product) {
+        return BASE_WEIGHT + 2 * (length(product.getName()) + length(product.getDescription())
+                + length(product.getBrand()) + length(product.getCategory()) + length(product.getImageName())
+                + length(product.getImageType()) + length(product.getImageKey()));
+    }
+
+    private static int length(String value) {
+        return value == null ? 0 : value.length();
+    }
+
+    // Callers hold the lock
+    private void remove(int id) {
+        Entry removed = cache.remove(id);
+        if (removed != null) {
+            weight -= removed.weight();
+        }
+    }
+
+    private void evictToBudget() {
+        Iterator<Entry> eldest = cache.values().iterator();
+        while (weight > maxWeight && eldest.hasNext()) {
+            weight -= eldest.next().weight();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+}
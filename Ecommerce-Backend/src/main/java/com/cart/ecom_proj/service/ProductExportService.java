@@ -0,0 +1,199 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ProductExportRow;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Streams the catalog as NDJSON or CSV straight from a forward-only query. Rows are DTOs,
+ * so nothing accumulates in the persistence context, and output is flushed every few hundred
+ * rows; memory use does not grow with the catalog. Image bytes are only read, one product at
+ * a time, when the caller asks for them inline.
+ */
+@Service
+public class ProductExportService {
+
+    public enum Format {
+        NDJSON("application/x-ndjson", "ndjson"),
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return MediaType.parseMediaType(contentType + ";charset=UTF-8");
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * Null when the name is not a supported format.
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equals(name.toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final int FLUSH_EVERY = 500;
+
+    private static final String[] CSV_HEADER = {
+            "id", "name", "description", "brand", "price", "category", "releaseDate", "productAvailable",
+            "stockQuantity", "imageName", "imageType", "imageSize", "imageUrl"
+    };
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private record InlineImageRow(@JsonUnwrapped ProductExportRow product, String imageData) {
+    }
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    @Autowired
+    private ProductImageService imageService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    /**
+     * Writes every product to {@code out}. With {@code includeImages} each row also carries
+     * its image as base64 in an imageData field.
+     */
+    public void export(OutputStream out, Format format, boolean includeImages) throws IOException {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        long start = System.currentTimeMillis();
+        long[] written = new long[1];
+        try {
+            readOnly.executeWithoutResult(status -> {
+                try (Stream<ProductExportRow> rows = productRepo.streamExportRows()) {
+                    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+                    written[0] = format == Format.CSV
+                            ? writeCsv(rows.iterator(), writer, includeImages)
+                            : writeNdjson(rows.iterator(), writer, includeImages);
+                    writer.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        System.out.println("Exported " + written[0] + " products as " + format + " in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private long writeNdjson(Iterator<ProductExportRow> rows, Writer writer, boolean includeImages)
+            throws IOException {
+        long count = 0;
+        // The writer must stay open: closing the sequence would close the response stream
+        SequenceWriter sequence = objectMapper.writer()
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n")
+                .writeValues(writer);
+        while (rows.hasNext()) {
+            ProductExportRow row = rows.next();
+            sequence.write(includeImages ? new InlineImageRow(row, imageData(row)) : row);
+            if (++count % FLUSH_EVERY == 0) {
+                sequence.flush();
+            }
+        }
+        sequence.flush();
+        if (count > 0) {
+            writer.write('\n');
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<ProductExportRow> rows, Writer writer, boolean includeImages) throws IOException {
+        writeCsvRecord(writer, includeImages ? withImageData(CSV_HEADER, "imageData") : CSV_HEADER);
+        long count = 0;
+        while (rows.hasNext()) {
+            ProductExportRow row = rows.next();
+            String[] record = {
+                    String.valueOf(row.id()), row.name(), row.description(), row.brand(),
+                    row.price() != null ? row.price().toPlainString() : null, row.category(), row.releaseDay(),
+                    String.valueOf(row.productAvailable()), String.valueOf(row.stockQuantity()), row.imageName(),
+                    row.imageType(), row.imageSize() != null ? row.imageSize().toString() : null, row.imageUrl()
+            };
+            writeCsvRecord(writer, includeImages ? withImageData(record, imageData(row)) : record);
+            if (++count % FLUSH_EVERY == 0) {
+                writer.flush();
+            }
+        }
+        return count;
+    }
+
+    private String imageData(ProductExportRow row) throws IOException {
+        if (row.imageKey() == null) {
+            return null;
+        }
+        Path image = imageService.locateImage(row.imageKey());
+        return image != null ? Base64.getEncoder().encodeToString(Files.readAllBytes(image)) : null;
+    }
+
+    private static String[] withImageData(String[] values, String imageData) {
+        String[] extended = new String[values.length + 1];
+        System.arraycopy(values, 0, extended, 0, values.length);
+        extended[values.length] = imageData;
+        return extended;
+    }
+
+    static void writeCsvRecord(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                    || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,534 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.CategoryCount;
+import com.cart.ecom_proj.dto.CategorySnapshot;
+import com.cart.ecom_proj.dto.FacetedProducts;
+import com.cart.ecom_proj.dto.FacetedProducts.FacetCount;
+import com.cart.ecom_proj.dto.FacetedProducts.PriceRangeCount;
+import com.cart.ecom_proj.dto.ProductFilter;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.event.CatalogImportedEvent;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.repo.ProductRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Per-value bitmaps over the catalog for combined filtering with facet counts. Each product
+ * gets a dense slot number; every category, brand, price bucket and the availability flag
+ * keeps a {@link BitSet} of the slots that carry it, so a filter is a handful of bitmap
+ * intersections instead of one query per dimension. Kept current from {@link ProductChangedEvent}s.
+ */
+@Service
+public class ProductFacetIndex {
+
+    // Upper bounds of the price buckets; the last bucket is open-ended
+    static final BigDecimal[] PRICE_BOUNDS = {
+            new BigDecimal("25"), new BigDecimal("50"), new BigDecimal("100"), new BigDecimal("250"),
+            new BigDecimal("500"), new BigDecimal("1000")
+    };
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // Labelled with the trimmed spelling of its lowest product id, as ProductRepo.countByCategory does
+    private static final class Facet {
+        private String label;
+        private int labelId;
+        private final BitSet slots = new BitSet();
+
+        private Facet(String label, int labelId) {
+            this.label = label;
+            this.labelId = labelId;
+        }
+    }
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "facet-index-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Replaced as a whole when a rebuild is adopted; guarded by lock
+    private Map<Integer, Integer> slotsById = new HashMap<>();
+    private List<ProductSummary> summaries = new ArrayList<>();
+    private Deque<Integer> freeSlots = new ArrayDeque<>();
+    private BitSet live = new BitSet();
+    private BitSet available = new BitSet();
+    private BitSet[] priceBuckets = new BitSet[PRICE_BOUNDS.length + 1];
+    // Keyed by the lower-cased value, so "Laptop" and "laptop" are one facet
+    private Map<String, Facet> categories = new HashMap<>();
+    private Map<String, Facet> brands = new HashMap<>();
+    private volatile CategorySnapshot categorySnapshot;
+    private volatile boolean ready;
+
+    // While a rebuild runs: the index being built and the products changed since it started
+    private ProductFacetIndex building;
+    private Set<Integer> changedDuringBuild;
+
+    public ProductFacetIndex() {
+        for (int i = 0; i < priceBuckets.length; i++) {
+            priceBuckets[i] = new BitSet();
+        }
+    }
+
+    /**
+     * False until the first build has been adopted; callers use the database until then.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogImportedEvent.class})
+    public void rebuildInBackground() {
+        builder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                System.err.println("Facet index build failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Builds a fresh index from the database in id-keyset batches, then adopts it under the write
+     * lock. Reads keep using the current index meanwhile. Changes that arrive during the build go
+     * to both; the build skips those products, since the event is at least as new as its row.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ProductFacetIndex next = new ProductFacetIndex();
+        lock.writeLock().lock();
+        try {
+            building = next;
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean complete = false;
+        try {
+            List<ProductSummary> batch;
+            int afterId = 0;
+            while (!(batch = productRepo.findSummariesAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE))).isEmpty()) {
+                lock.writeLock().lock();
+                try {
+                    for (ProductSummary product : batch) {
+                        if (!changedDuringBuild.contains(product.id())) {
+                            next.addProduct(product);
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    adopt(next);
+                    ready = true;
+                }
+                building = null;
+                changedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        System.out.println("Facet index built with " + next.slotsById.size() + " products, " + next.categories.size()
+                + " categories and " + next.brands.size() + " brands in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (building != null) {
+                changedDuringBuild.add(event.productId());
+                building.apply(event);
+            }
+            Integer slot = slotsById.get(event.productId());
+            String previousCategory = slot == null ? null : key(summaries.get(slot).category());
+            String previousLabel = label(previousCategory);
+            apply(event);
+            String category = event.product() == null ? null : key(event.product().getCategory());
+            // A new spelling of the same category can relabel it without moving any product
+            if (previousCategory == null || !previousCategory.equals(category)
+                    || !previousLabel.equals(label(category))) {
+                categorySnapshot = null;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Category names and product counts, sorted by name. Built from the category bitmaps on
+     * first use and kept until a write adds, removes or moves a product between categories.
+     */
+    public CategorySnapshot categorySnapshot() {
+        CategorySnapshot snapshot = categorySnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        lock.readLock().lock();
+        try {
+            List<CategoryCount> counts = new ArrayList<>(categories.size());
+            for (Facet facet : categories.values()) {
+                counts.add(new CategoryCount(facet.label, facet.slots.cardinality()));
+            }
+            snapshot = snapshotOf(counts);
+            // Published under the read lock, so a concurrent write cannot be overwritten by a stale build
+            categorySnapshot = snapshot;
+            return snapshot;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Sorts the counts by name and tags them. The ETags depend only on the names and counts, so
+     * a snapshot built from the database matches the one the index builds for the same catalog.
+     */
+    static CategorySnapshot snapshotOf(List<CategoryCount> counts) {
+        List<CategoryCount> sorted = new ArrayList<>(counts);
+        sorted.sort(Comparator.comparing(CategoryCount::name, String.CASE_INSENSITIVE_ORDER));
+        List<String> names = sorted.stream().map(CategoryCount::name).toList();
+        StringBuilder content = new StringBuilder();
+        for (CategoryCount count : sorted) {
+            content.append(count.name()).append('\t').append(count.productCount()).append('\n');
+        }
+        return new CategorySnapshot(List.copyOf(sorted), names, etag("cat", content.toString()),
+                etag("catn", String.join("\n", names)));
+    }
+
+    /**
+     * Applies the filter and returns the requested page with facet counts.
+     *
+     * @param keywordMatches product ids matching {@code filter.keyword()}, best match first, or
+     *                       null when the filter has no keyword
+     * @param sortBy         a {@link ProductSummary} field, or null to keep keyword relevance
+     *                       order (id order without a keyword)
+     */
+    public FacetedProducts filter(ProductFilter filter, List<Integer> keywordMatches,
+                                  String sortBy, boolean descending, int page, int size) {
+        lock.readLock().lock();
+        try {
+            BitSet categoryMask = unionOf(categories, filter.categories());
+            BitSet brandMask = unionOf(brands, filter.brands());
+            BitSet priceMask = priceMask(filter.minPrice(), filter.maxPrice());
+            BitSet availabilityMask = availabilityMask(filter.available());
+            BitSet keywordMask = null;
+            if (keywordMatches != null) {
+                keywordMask = new BitSet();
+                for (Integer productId : keywordMatches) {
+                    Integer slot = slotsById.get(productId);
+                    if (slot != null) {
+                        keywordMask.set(slot);
+                    }
+                }
+            }
+
+            BitSet matches = intersect(categoryMask, brandMask, priceMask, availabilityMask, keywordMask);
+
+            List<ProductSummary> ordered = new ArrayList<>(matches.cardinality());
+            if (sortBy == null && keywordMatches != null) {
+                for (Integer productId : keywordMatches) {
+                    Integer slot = slotsById.get(productId);
+                    if (slot != null && matches.get(slot)) {
+                        ordered.add(summaries.get(slot));
+                    }
+                }
+            } else {
+                for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+                    ordered.add(summaries.get(slot));
+                }
+                Comparator<ProductSummary> comparator = comparator(sortBy == null ? "id" : sortBy);
+                ordered.sort(descending ? comparator.reversed() : comparator);
+            }
+
+            int from = (int) Math.min((long) page * size, ordered.size());
+            int to = Math.min(from + size, ordered.size());
+            int totalPages = (ordered.size() + size - 1) / size;
+
+            BitSet categoryBase = intersect(null, brandMask, priceMask, availabilityMask, keywordMask);
+            BitSet brandBase = intersect(categoryMask, null, priceMask, availabilityMask, keywordMask);
+            BitSet priceBase = intersect(categoryMask, brandMask, null, availabilityMask, keywordMask);
+            BitSet availabilityBase = intersect(categoryMask, brandMask, priceMask, null, keywordMask);
+
+            List<PriceRangeCount> priceRanges = new ArrayList<>(priceBuckets.length);
+            for (int i = 0; i < priceBuckets.length; i++) {
+                priceRanges.add(new PriceRangeCount(i == 0 ? BigDecimal.ZERO : PRICE_BOUNDS[i - 1],
+                        i < PRICE_BOUNDS.length ? PRICE_BOUNDS[i] : null, countIn(priceBase, priceBuckets[i])));
+            }
+
+            return new FacetedProducts(new ArrayList<>(ordered.subList(from, to)), page, size, ordered.size(),
+                    totalPages, facetCounts(categories, categoryBase, filter.categories()),
+                    facetCounts(brands, brandBase, filter.brands()), priceRanges,
+                    countIn(availabilityBase, available));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static int priceBucket(BigDecimal price) {
+        int bucket = 0;
+        while (bucket < PRICE_BOUNDS.length && price.compareTo(PRICE_BOUNDS[bucket]) >= 0) {
+            bucket++;
+        }
+        return bucket;
+    }
+
+    private String label(String categoryKey) {
+        Facet facet = categoryKey == null ? null : categories.get(categoryKey);
+        return facet == null ? "" : facet.label;
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String etag(String prefix, String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return "\"" + prefix + "-" + HexFormat.of().formatHex(digest, 0, 8) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    static Comparator<ProductSummary> comparator(String sortBy) {
+        Comparator<ProductSummary> comparator = switch (sortBy) {
+            case "name" -> Comparator.comparing(ProductSummary::name,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case "brand" -> Comparator.comparing(ProductSummary::brand,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case "category" -> Comparator.comparing(ProductSummary::category,
+                    Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+            case "price" -> Comparator.comparing(ProductSummary::price,
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            default -> (a, b) -> 0;
+        };
+        return comparator.thenComparingInt(ProductSummary::id);
+    }
+
+    private BitSet intersect(BitSet... masks) {
+        BitSet result = (BitSet) live.clone();
+        for (BitSet mask : masks) {
+            if (mask != null) {
+                result.and(mask);
+            }
+        }
+        return result;
+    }
+
+    private static int countIn(BitSet base, BitSet values) {
+        BitSet both = (BitSet) base.clone();
+        both.and(values);
+        return both.cardinality();
+    }
+
+    private static BitSet unionOf(Map<String, Facet> facets, List<String> values) {
+        if (values == null || values.isEmpty()) {
+            return null;
+        }
+        BitSet union = new BitSet();
+        for (String value : values) {
+            Facet facet = facets.get(key(value));
+            if (facet != null) {
+                union.or(facet.slots);
+            }
+        }
+        return union;
+    }
+
+    private BitSet availabilityMask(Boolean wanted) {
+        if (wanted == null) {
+            return null;
+        }
+        if (wanted) {
+            return available;
+        }
+        BitSet unavailable = (BitSet) live.clone();
+        unavailable.andNot(available);
+        return unavailable;
+    }
+
+    // Buckets fully inside the range are OR-ed in whole; only the edge buckets are checked price by price
+    private BitSet priceMask(BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return null;
+        }
+        BitSet mask = new BitSet();
+        for (int i = 0; i < priceBuckets.length; i++) {
+            BigDecimal bucketMin = i == 0 ? null : PRICE_BOUNDS[i - 1];
+            BigDecimal bucketMax = i < PRICE_BOUNDS.length ? PRICE_BOUNDS[i] : null;
+            boolean startsInside = min == null || (bucketMin != null && bucketMin.compareTo(min) >= 0);
+            boolean endsInside = max == null || (bucketMax != null && bucketMax.compareTo(max) <= 0);
+            boolean disjoint = (max != null && bucketMin != null && bucketMin.compareTo(max) > 0)
+                    || (min != null && bucketMax != null && bucketMax.compareTo(min) <= 0);
+            if (disjoint) {
+                continue;
+            }
+            if (startsInside && endsInside) {
+                mask.or(priceBuckets[i]);
+                continue;
+            }
+            BitSet bucket = priceBuckets[i];
+            for (int slot = bucket.nextSetBit(0); slot >= 0; slot = bucket.nextSetBit(slot + 1)) {
+                BigDecimal price = summaries.get(slot).price();
+                if ((min == null || price.compareTo(min) >= 0) && (max == null || price.compareTo(max) <= 0)) {
+                    mask.set(slot);
+                }
+            }
+        }
+        return mask;
+    }
+
+    // Values with matches, plus any selected value so the sidebar can still show it as checked
+    private static List<FacetCount> facetCounts(Map<String, Facet> facets, BitSet base, List<String> selected) {
+        Set<String> selectedKeys = new HashSet<>();
+        if (selected != null) {
+            for (String value : selected) {
+                selectedKeys.add(key(value));
+            }
+        }
+        List<FacetCount> counts = new ArrayList<>();
+        for (Map.Entry<String, Facet> entry : facets.entrySet()) {
+            int count = countIn(base, entry.getValue().slots);
+            if (count > 0 || selectedKeys.contains(entry.getKey())) {
+                counts.add(new FacetCount(entry.getValue().label, count));
+            }
+        }
+        counts.sort(Comparator.comparingInt(FacetCount::count).reversed()
+                .thenComparing(FacetCount::value, String.CASE_INSENSITIVE_ORDER));
+        return counts;
+    }
+
+    // Callers hold the write lock
+    private void apply(ProductChangedEvent event) {
+        removeProduct(event.productId());
+        if (event.product() != null) {
+            addProduct(ProductSummary.of(event.product()));
+        }
+    }
+
+    private void adopt(ProductFacetIndex built) {
+        slotsById = built.slotsById;
+        summaries = built.summaries;
+        freeSlots = built.freeSlots;
+        live = built.live;
+        available = built.available;
+        priceBuckets = built.priceBuckets;
+        categories = built.categories;
+        brands = built.brands;
+        categorySnapshot = null;
+    }
+
+    private void addProduct(ProductSummary product) {
+        int slot = freeSlots.isEmpty() ? summaries.size() : freeSlots.pop();
+        if (slot == summaries.size()) {
+            summaries.add(product);
+        } else {
+            summaries.set(slot, product);
+        }
+        slotsById.put(product.id(), slot);
+        live.set(slot);
+        // The flag alone, as in ProductFilter.matches and the database filter
+        if (product.productAvailable()) {
+            available.set(slot);
+        }
+        if (product.price() != null) {
+            priceBuckets[priceBucket(product.price())].set(slot);
+        }
+        setFacet(categories, product.category(), product.id(), slot);
+        setFacet(brands, product.brand(), product.id(), slot);
+    }
+
+    private void removeProduct(int productId) {
+        Integer slot = slotsById.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        ProductSummary summary = summaries.set(slot, null);
+        live.clear(slot);
+        available.clear(slot);
+        if (summary.price() != null) {
+            priceBuckets[priceBucket(summary.price())].clear(slot);
+        }
+        clearFacet(categories, ProductSummary::category, summary, slot);
+        clearFacet(brands, ProductSummary::brand, summary, slot);
+        freeSlots.push(slot);
+    }
+
+    private static void setFacet(Map<String, Facet> facets, String value, int productId, int slot) {
+        String key = key(value);
+        if (key.isEmpty()) {
+            return;
+        }
+        Facet facet = facets.computeIfAbsent(key, k -> new Facet(value.trim(), productId));
+        facet.slots.set(slot);
+        if (productId < facet.labelId) {
+            facet.label = value.trim();
+            facet.labelId = productId;
+        }
+    }
+
+    private void clearFacet(Map<String, Facet> facets, Function<ProductSummary, String> field,
+                            ProductSummary summary, int slot) {
+        String key = key(field.apply(summary));
+        Facet facet = facets.get(key);
+        if (facet == null) {
+            return;
+        }
+        facet.slots.clear(slot);
+        if (facet.slots.isEmpty()) {
+            facets.remove(key);
+        } else if (facet.labelId == summary.id()) {
+            // The label's product left; take the spelling of the next lowest id
+            facet.labelId = Integer.MAX_VALUE;
+            for (int other = facet.slots.nextSetBit(0); other >= 0; other = facet.slots.nextSetBit(other + 1)) {
+                ProductSummary remaining = summaries.get(other);
+                if (remaining.id() < facet.labelId) {
+                    facet.labelId = remaining.id();
+                    facet.label = field.apply(remaining).trim();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
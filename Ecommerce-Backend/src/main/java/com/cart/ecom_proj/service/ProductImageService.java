@@ -0,0 +1,146 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps image bytes out of the product table. Products only carry the image key,
+ * size and content type; the bytes live in the {@link ImageStore}.
+ */
+@Service
+public class ProductImageService {
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private ImageDerivativeService derivativeService;
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    // Keys given up by updates and deletes, waiting for sweepReleased. Only held in memory, so
+    // keys released just before a restart leave their files behind as unreferenced orphans.
+    private final Set<String> released = ConcurrentHashMap.newKeySet();
+    private final long graceMillis;
+    private final long sweepMillis;
+    private final ScheduledExecutorService sweeper;
+
+    public ProductImageService(@Value("${app.images.release-grace-ms:600000}") long graceMillis,
+                               @Value("${app.images.release-sweep-ms:60000}") long sweepMillis) {
+        this.graceMillis = graceMillis;
+        this.sweepMillis = sweepMillis;
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-release-sweep");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PostConstruct
+    public void start() {
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                sweepReleased();
+            } catch (RuntimeException e) {
+                System.err.println("Image release sweep failed: " + e.getMessage());
+            }
+        }, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Streams the upload into the image store and points the product at it.
+     */
+    public void attachImage(Product product, MultipartFile imageFile) throws IOException {
+        ImageStore.StoredImage stored;
+        try (InputStream in = imageFile.getInputStream()) {
+            stored = imageStore.store(in);
+        }
+        applyImage(product, imageFile.getOriginalFilename(), imageFile.getContentType(), stored);
+    }
+
+    public void attachImage(Product product, String imageName, String contentType, byte[] data) {
+        applyImage(product, imageName, contentType, imageStore.store(data));
+    }
+
+    /**
+     * Stores an image for a bulk import. Unlike uploads, variants are not queued here; they
+     * are generated on first request so a large import cannot flood the derivative pool.
+     */
+    public void attachImportedImage(Product product, String imageName, InputStream in) throws IOException {
+        ImageStore.StoredImage stored = imageStore.store(in);
+        product.setImageName(imageName);
+        product.setImageType(imageStore.contentType(imageStore.locate(stored.key())));
+        product.setImageKey(stored.key());
+        product.setImageSize(stored.size());
+    }
+
+    public Path locateImage(String imageKey) {
+        return imageStore.locate(imageKey);
+    }
+
+    /**
+     * Returns the precomputed variant, or null when the original should be served instead.
+     */
+    public Path locateVariant(String imageKey, ImageDerivativeService.ImageVariant variant) {
+        return derivativeService.locateVariant(imageKey, variant);
+    }
+
+    public String contentType(Path imageFile) throws IOException {
+        return imageStore.contentType(imageFile);
+    }
+
+    /**
+     * Queues the stored image for removal once no product refers to it any more. Deleting it
+     * here could race with a concurrent upload of the same bytes, which gets the same key and
+     * may commit its reference just after the check.
+     */
+    public void releaseImage(String imageKey) {
+        if (imageKey != null) {
+            released.add(imageKey);
+        }
+    }
+
+    /**
+     * Deletes released images that no product refers to and that nobody has stored again for
+     * {@code app.images.release-grace-ms}. A writer stores its image before saving the product,
+     * so a reference that is not committed yet always comes with a recent store; the grace
+     * period only has to outlast that gap.
+     */
+    void sweepReleased() {
+        long cutoff = System.currentTimeMillis() - graceMillis;
+        for (String key : released) {
+            if (productRepo.existsByImageKey(key) || imageStore.deleteIfStoredBefore(key, cutoff)) {
+                released.remove(key);
+            }
+        }
+    }
+
+    private void applyImage(Product product, String imageName, String contentType, ImageStore.StoredImage stored) {
+        product.setImageName(imageName);
+        product.setImageType(contentType);
+        product.setImageKey(stored.key());
+        product.setImageSize(stored.size());
+        derivativeService.generateAsync(stored.key());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
+    }
+}
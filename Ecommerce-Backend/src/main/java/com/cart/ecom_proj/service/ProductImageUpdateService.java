@@ -0,0 +1,326 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ImageUpdateJobStatus;
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+
+/**
+ * Replaces every product image with the bundled photo for known product names, or a letter
+ * placeholder otherwise, as a background job. The catalog is walked by id in chunks: images
+ * for a chunk are loaded in parallel on a bounded pool, then applied and saved in one short
+ * transaction per chunk, so neither the heap nor any transaction grows with the catalog.
+ * Only one job runs at a time; starting another while it runs returns the running one.
+ */
+@Service
+public class ProductImageUpdateService {
+
+    private static final Map<String, String> PRODUCT_IMAGES = Map.of(
+            "Wireless Headphones", "wireless_headphones.jpg",
+            "Smartphone X12", "smartphone_x12.jpg",
+            "Ultrabook Pro 14", "ultrabook_pro_14.jpg",
+            "Gaming Mouse GX", "gaming_mouse_gx.jpg",
+            "Mechanical Keyboard MK87", "mechanical_keyboard_mk87.jpg",
+            "4K UHD Monitor 27\"", "4k_monitor_27.jpg",
+            "Bluetooth Speaker Mini", "bluetooth_speaker_mini.jpg");
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    // Finished jobs kept around for the status endpoint
+    private static final int MAX_RETAINED_JOBS = 20;
+
+    private record LoadedImage(String name, String contentType, byte[] data) {
+    }
+
+    private static final class Job {
+        final String id = UUID.randomUUID().toString();
+        final Instant startedAt = Instant.now();
+        final AtomicLong processed = new AtomicLong();
+        final AtomicLong updated = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        final List<String> errors = new ArrayList<>();
+        volatile long total;
+        volatile String state = ImageUpdateJobStatus.RUNNING;
+        volatile Instant finishedAt;
+
+        void fail(int productId, String message) {
+            failed.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Product " + productId + ": " + message);
+                }
+            }
+        }
+
+        ImageUpdateJobStatus status() {
+            List<String> errorsCopy;
+            synchronized (errors) {
+                errorsCopy = List.copyOf(errors);
+            }
+            return new ImageUpdateJobStatus(id, state, total, processed.get(), updated.get(), failed.get(),
+                    errorsCopy, startedAt, finishedAt);
+        }
+    }
+
+    @Autowired
+    private ProductRepo repo;
+
+    @Autowired
+    private ProductImageService imageService;
+
+    @Autowired
+    private PlaceholderImageCache placeholderCache;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final int chunkSize;
+    private final ExecutorService jobRunner;
+    private final ThreadPoolExecutor loaders;
+
+    private final Map<String, Job> jobs = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+            return size() > MAX_RETAINED_JOBS;
+        }
+    };
+    private Job running;
+
+    public ProductImageUpdateService(@Value("${app.images.update-chunk-size:100}") int chunkSize,
+                                     @Value("${app.images.update-threads:4}") int threads) {
+        this.chunkSize = chunkSize;
+        this.jobRunner = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "image-update-job");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        // At most one chunk of loads is queued; if the queue is full the job thread loads itself
+        this.loaders = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(chunkSize), runnable -> {
+                    Thread thread = new Thread(runnable, "image-update-loader-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.CallerRunsPolicy());
+        this.loaders.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Starts a job and returns its initial status, or the status of the job already running.
+     */
+    public ImageUpdateJobStatus start() {
+        Job job;
+        synchronized (jobs) {
+            if (running != null) {
+                return running.status();
+            }
+            job = new Job();
+            jobs.put(job.id, job);
+            running = job;
+        }
+        try {
+            job.total = repo.count();
+            jobRunner.execute(() -> run(job));
+        } catch (RuntimeException e) {
+            // The job never ran, so it must not block the next start
+            finish(job, ImageUpdateJobStatus.FAILED);
+            throw e;
+        }
+        return job.status();
+    }
+
+    /**
+     * Null when no job with this id was started or it is no longer retained.
+     */
+    public ImageUpdateJobStatus status(String jobId) {
+        synchronized (jobs) {
+            Job job = jobs.get(jobId);
+            return job != null ? job.status() : null;
+        }
+    }
+
+    private void run(Job job) {
+        long start = System.currentTimeMillis();
+        String state = ImageUpdateJobStatus.FAILED;
+        try {
+            int afterId = 0;
+            List<ProductImageRef> chunk;
+            while (!(chunk = repo.findImageRefsAfter(afterId, PageRequest.of(0, chunkSize))).isEmpty()) {
+                processChunk(job, chunk);
+                afterId = chunk.get(chunk.size() - 1).id();
+            }
+            state = ImageUpdateJobStatus.COMPLETED;
+        } catch (RuntimeException e) {
+            System.err.println("Image update job " + job.id + " failed: " + e.getMessage());
+        } finally {
+            finish(job, state);
+        }
+        System.out.println("Image update job " + job.id + " updated " + job.updated.get() + " products ("
+                + job.failed.get() + " failed) in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    // Under the lock, so a job reported as finished never still blocks the next start
+    private void finish(Job job, String state) {
+        synchronized (jobs) {
+            job.state = state;
+            job.finishedAt = Instant.now();
+            running = null;
+        }
+    }
+
+    private void processChunk(Job job, List<ProductImageRef> chunk) {
+        Map<Integer, Future<LoadedImage>> loads = new HashMap<>();
+        for (ProductImageRef ref : chunk) {
+            loads.put(ref.id(), loaders.submit(() -> loadImage(ref.name())));
+        }
+
+        Map<Integer, LoadedImage> images = new HashMap<>();
+        for (Map.Entry<Integer, Future<LoadedImage>> load : loads.entrySet()) {
+            try {
+                images.put(load.getKey(), load.getValue().get());
+            } catch (ExecutionException e) {
+                job.fail(load.getKey(), e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while loading images", e);
+            }
+        }
+
+        try {
+            int saved = transactionTemplate.execute(status -> {
+                // Re-read inside the transaction so concurrent edits to other columns are not overwritten
+                List<Product> products = repo.findAllById(images.keySet());
+                for (Product product : products) {
+                    LoadedImage image = images.get(product.getId());
+                    imageService.attachImage(product, image.name(), image.contentType(), image.data());
+                }
+                for (Product product : repo.saveAll(products)) {
+                    eventPublisher.publishEvent(ProductChangedEvent.updated(product));
+                }
+                return products.size();
+            });
+            job.updated.addAndGet(saved);
+        } catch (RuntimeException e) {
+            for (Integer productId : images.keySet()) {
+                job.fail(productId, e.getMessage());
+            }
+        }
+        job.processed.addAndGet(chunk.size());
+    }
+
+    private LoadedImage loadImage(String productName) {
+        String imageFileName = PRODUCT_IMAGES.get(productName);
+        if (imageFileName == null) {
+            for (Map.Entry<String, String> entry : PRODUCT_IMAGES.entrySet()) {
+                if (entry.getKey().equalsIgnoreCase(productName)) {
+                    imageFileName = entry.getValue();
+                    break;
+                }
+            }
+        }
+        if (imageFileName != null) {
+            return new LoadedImage(imageFileName, "image/jpeg", loadImageFromResources(imageFileName));
+        }
+        // Fallback to placeholder for unknown products
+        return new LoadedImage(productName.toLowerCase().replace(" ", "_") + ".png", "image/png",
+                generatePlaceholderImage(productName, Color.GRAY));
+    }
+
+    private byte[] loadImageFromResources(String imageFileName) {
+        String resourcePath = "images/" + imageFileName;
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath)) {
+            if (inputStream == null) {
+                System.err.println("Image not found in resources: " + resourcePath);
+                return generatePlaceholderImage(imageFileName.replace(".jpg", ""), Color.GRAY);
+            }
+            return inputStream.readAllBytes();
+        } catch (IOException e) {
+            System.err.println("Error loading image: " + imageFileName + " - " + e.getMessage());
+            return generatePlaceholderImage(imageFileName.replace(".jpg", ""), Color.GRAY);
+        }
+    }
+
+    private byte[] generatePlaceholderImage(String productName, Color bgColor) {
+        String letter = productName.substring(0, 1).toUpperCase();
+        return placeholderCache.get("letter", letter, 50, 50, bgColor,
+                () -> renderPlaceholderImage(letter, bgColor)).png();
+    }
+
+    private byte[] renderPlaceholderImage(String letter, Color bgColor) {
+        try {
+            // Create a very small 50x50 image to fit in database constraints
+            BufferedImage image = new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g2d = image.createGraphics();
+
+            // Fill background with the provided color
+            g2d.setColor(bgColor);
+            g2d.fillRect(0, 0, 50, 50);
+
+            // Add a border
+            g2d.setColor(bgColor.darker());
+            g2d.drawRect(0, 0, 49, 49);
+
+            // Add first letter of product name
+            g2d.setColor(Color.WHITE);
+            g2d.setFont(new Font("Arial", Font.BOLD, 20));
+            FontMetrics fm = g2d.getFontMetrics();
+            int x = (50 - fm.stringWidth(letter)) / 2;
+            int y = (50 + fm.getAscent()) / 2;
+            g2d.drawString(letter, x, y);
+
+            g2d.dispose();
+
+            // Convert to byte array with high compression
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(image, "png", baos);
+            return baos.toByteArray();
+
+        } catch (Exception e) {
+            // Return minimal byte array if image generation fails
+            return new byte[] { (byte) 0x89, 0x50, 0x4E, 0x47 }; // PNG header only
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobRunner.shutdownNow();
+        loaders.shutdownNow();
+    }
+}
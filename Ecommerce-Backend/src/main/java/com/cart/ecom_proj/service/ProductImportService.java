@@ -0,0 +1,387 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ImportReport;
+import com.cart.ecom_proj.dto.ImportReport.RowError;
+import com.cart.ecom_proj.event.CatalogImportedEvent;
+import com.cart.ecom_proj.model.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Bulk product import from CSV or NDJSON. Rows are parsed one at a time from the stream,
+ * validated, and written with JDBC batch inserts in their own transaction per batch, so
+ * memory stays bounded by the batch size however large the file is. Hibernate cannot batch
+ * these inserts itself because {@link Product} uses IDENTITY ids.
+ * <p>
+ * Columns (CSV header or JSON keys, case-insensitive): name, category and price are required;
+ * description, brand, releaseDate (yyyy-MM-dd), productAvailable, stockQuantity and imagePath
+ * are optional. imagePath names an entry of the uploaded zip bundle, or a file under
+ * {@code app.products.import-image-dir}.
+ */
+@Service
+public class ProductImportService {
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format of(String filename, String contentType) {
+            String name = filename == null ? "" : filename.toLowerCase(Locale.ROOT);
+            if (name.endsWith(".ndjson") || name.endsWith(".jsonl")
+                    || (contentType != null && contentType.contains("ndjson"))) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    private static final String INSERT_SQL = "INSERT INTO product (name, description, brand, price, category, "
+            + "release_date, product_available, stock_quantity, image_name, image_type, image_key, image_size, "
+            + "category_key, brand_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Product string columns are plain VARCHAR(255)
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ProductImageService imageService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.products.import-batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.products.import-image-dir:}")
+    private String imageDir;
+
+    private record PendingRow(long row, Object[] values) {
+    }
+
+    private static final class ImportRun {
+        private final ZipFile bundle;
+        private final List<PendingRow> batch = new ArrayList<>();
+        private final List<RowError> errors = new ArrayList<>();
+        private long rowsRead;
+        private long imported;
+        private long failed;
+
+        private ImportRun(ZipFile bundle) {
+            this.bundle = bundle;
+        }
+
+        private void reject(long row, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(row, message));
+            }
+        }
+    }
+
+    /**
+     * Imports every row of {@code in}. {@code bundle} is an optional zip of images that
+     * imagePath values refer to. Rows that fail validation or the insert are reported and
+     * skipped; all other rows are committed.
+     */
+    public ImportReport importProducts(InputStream in, Format format, Path bundle) throws IOException {
+        long start = System.currentTimeMillis();
+        ImportRun run;
+        try (ZipFile zip = bundle != null ? new ZipFile(bundle.toFile()) : null;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            run = new ImportRun(zip);
+            Iterator<Map<String, String>> rows = format == Format.NDJSON ? ndjsonRows(reader, run) : csvRows(reader);
+            while (rows.hasNext()) {
+                Map<String, String> row = rows.next();
+                long rowNumber = ++run.rowsRead;
+                if (row == null) {
+                    continue;
+                }
+                try {
+                    run.batch.add(new PendingRow(rowNumber, toValues(row, run)));
+                } catch (IllegalArgumentException e) {
+                    run.reject(rowNumber, e.getMessage());
+                }
+                if (run.batch.size() >= batchSize) {
+                    flush(run);
+                }
+            }
+            flush(run);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        long elapsed = System.currentTimeMillis() - start;
+        System.out.println("Product import finished: " + run.imported + " imported, " + run.failed + " rejected, "
+                + run.rowsRead + " rows in " + elapsed + " ms");
+        if (run.imported > 0) {
+            eventPublisher.publishEvent(new CatalogImportedEvent(run.imported));
+        }
+        return new ImportReport(run.rowsRead, run.imported, run.failed, run.errors, elapsed);
+    }
+
+    private void flush(ImportRun run) {
+        if (run.batch.isEmpty()) {
+            return;
+        }
+        List<Object[]> values = new ArrayList<>(run.batch.size());
+        for (PendingRow row : run.batch) {
+            values.add(row.values());
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INSERT_SQL, values));
+            run.imported += values.size();
+        } catch (DataAccessException e) {
+            // The batch rolled back as a whole; retry row by row to find the offending rows
+            for (PendingRow row : run.batch) {
+                try {
+                    jdbcTemplate.update(INSERT_SQL, row.values());
+                    run.imported++;
+                } catch (DataAccessException rowError) {
+                    run.reject(row.row(), "Insert failed: " + rowError.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+        run.batch.clear();
+        System.out.println("Product import progress: " + run.imported + " imported, " + run.failed
+                + " rejected after " + run.rowsRead + " rows");
+    }
+
+    private Object[] toValues(Map<String, String> row, ImportRun run) {
+        String name = text(row, "name", true);
+        String category = text(row, "category", true);
+        BigDecimal price = decimal(row, "price");
+        int stockQuantity = integer(row, "stockquantity", 0);
+        Boolean available = bool(row, "productavailable");
+        LocalDate releaseDate = date(row, "releasedate");
+
+        Product product = new Product();
+        String imagePath = text(row, "imagepath", false);
+        if (imagePath != null) {
+            attachImage(product, imagePath, run);
+        }
+
+        String brand = text(row, "brand", false);
+        return new Object[]{
+                name, text(row, "description", false), brand, price, category,
+                releaseDate != null ? Timestamp.valueOf(releaseDate.atStartOfDay()) : null,
+                available != null ? available : stockQuantity > 0, stockQuantity,
+                product.getImageName(), product.getImageType(), product.getImageKey(), product.getImageSize(),
+                Product.filterKey(category), Product.filterKey(brand)
+        };
+    }
+
+    private void attachImage(Product product, String imagePath, ImportRun run) {
+        String imageName = Path.of(imagePath).getFileName().toString();
+        try {
+            if (run.bundle != null) {
+                ZipEntry entry = run.bundle.getEntry(imagePath);
+                if (entry == null || entry.isDirectory()) {
+                    throw new IllegalArgumentException("Image not found in bundle: " + imagePath);
+                }
+                try (InputStream in = run.bundle.getInputStream(entry)) {
+                    imageService.attachImportedImage(product, imageName, in);
+                }
+                return;
+            }
+            if (imageDir.isBlank()) {
+                throw new IllegalArgumentException("imagePath given but no image bundle was uploaded");
+            }
+            Path root = Path.of(imageDir).toAbsolutePath().normalize();
+            Path file = root.resolve(imagePath).normalize();
+            if (!file.startsWith(root) || !Files.isRegularFile(file)) {
+                throw new IllegalArgumentException("Image not found: " + imagePath);
+            }
+            try (InputStream in = Files.newInputStream(file)) {
+                imageService.attachImportedImage(product, imageName, in);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not read image " + imagePath + ": " + e.getMessage());
+        }
+    }
+
+    private static String text(Map<String, String> row, String column, boolean required) {
+        String value = row.get(column);
+        if (value == null || value.isBlank()) {
+            if (required) {
+                throw new IllegalArgumentException("Missing " + column);
+            }
+            return null;
+        }
+        value = value.trim();
+        if (value.length() > MAX_TEXT_LENGTH) {
+            throw new IllegalArgumentException(column + " is longer than " + MAX_TEXT_LENGTH + " characters");
+        }
+        return value;
+    }
+
+    private static BigDecimal decimal(Map<String, String> row, String column) {
+        String value = text(row, column, true);
+        try {
+            BigDecimal decimal = new BigDecimal(value);
+            if (decimal.signum() < 0) {
+                throw new IllegalArgumentException(column + " must not be negative");
+            }
+            return decimal;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static int integer(Map<String, String> row, String column, int defaultValue) {
+        String value = text(row, column, false);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            int number = Integer.parseInt(value);
+            if (number < 0) {
+                throw new IllegalArgumentException(column + " must not be negative");
+            }
+            return number;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    private static Boolean bool(Map<String, String> row, String column) {
+        String value = text(row, column, false);
+        if (value == null) {
+            return null;
+        }
+        if (value.equalsIgnoreCase("true") || value.equalsIgnoreCase("false")) {
+            return Boolean.valueOf(value);
+        }
+        throw new IllegalArgumentException("Invalid " + column + ": " + value);
+    }
+
+    private static LocalDate date(Map<String, String> row, String column) {
+        String value = text(row, column, false);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + column + ": " + value);
+        }
+    }
+
+    // Rows come back keyed by lower-cased column name
+    private static Iterator<Map<String, String>> csvRows(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        List<String> header = csv.next();
+        if (header == null) {
+            return List.<Map<String, String>>of().iterator();
+        }
+        List<String> columns = new ArrayList<>(header.size());
+        for (String column : header) {
+            columns.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+        return new Iterator<>() {
+            private List<String> next = read();
+
+            private List<String> read() {
+                try {
+                    return csv.next();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map<String, String> next() {
+                Map<String, String> row = new HashMap<>();
+                for (int i = 0; i < columns.size() && i < next.size(); i++) {
+                    row.put(columns.get(i), next.get(i));
+                }
+                next = read();
+                return row;
+            }
+        };
+    }
+
+    // Malformed lines are reported and come back as null rows, so one bad line does not stop the import
+    private Iterator<Map<String, String>> ndjsonRows(BufferedReader reader, ImportRun run) {
+        return new Iterator<>() {
+            private String next = read();
+
+            private String read() {
+                try {
+                    String line;
+                    do {
+                        line = reader.readLine();
+                    } while (line != null && line.isBlank());
+                    return line;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Map<String, String> next() {
+                String line = next;
+                next = read();
+                try {
+                    JsonNode node = objectMapper.readTree(line);
+                    if (!node.isObject()) {
+                        throw new IOException("not a JSON object");
+                    }
+                    Map<String, String> row = new HashMap<>();
+                    node.fields().forEachRemaining(field -> row.put(field.getKey().toLowerCase(Locale.ROOT),
+                            field.getValue().isNull() ? null : field.getValue().asText()));
+                    return row;
+                } catch (IOException e) {
+                    run.reject(run.rowsRead + 1, "Invalid JSON: " + e.getMessage());
+                    return null;
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,324 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ProductSearchRow;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.event.CatalogImportedEvent;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.repo.ProductRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over product name, brand, category and description with
+ * BM25 ranking. Built from the database once the application is ready and kept current
+ * from {@link ProductChangedEvent}s, so searches never scan the product table.
+ */
+@Service
+public class ProductSearchIndex {
+
+    // BM25 parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Matches in the name count more than matches in the description
+    private static final int NAME_WEIGHT = 3;
+    private static final int BRAND_WEIGHT = 2;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    // Best match first: higher score, then lower id so equal scores keep a stable order
+    private static final Comparator<Map.Entry<Integer, Double>> RANKING =
+            Map.Entry.<Integer, Double>comparingByValue(Collections.reverseOrder())
+                    .thenComparing(Map.Entry.comparingByKey());
+
+    private record Document(ProductSummary summary, Map<String, Integer> termFrequencies, int length) {
+    }
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "search-index-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Replaced as a whole when a rebuild is adopted; guarded by lock.
+    // term -> (product id -> weighted term frequency); sorted so the last query term can match as a prefix
+    private NavigableMap<String, Map<Integer, Integer>> postings = new TreeMap<>();
+    private Map<Integer, Document> documents = new HashMap<>();
+    private long totalLength;
+    private volatile boolean ready;
+
+    // While a rebuild runs: the index being built and the products changed since it started
+    private ProductSearchIndex building;
+    private Set<Integer> changedDuringBuild;
+
+    /**
+     * False until the first build has been adopted; callers use the database until then.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogImportedEvent.class})
+    public void rebuildInBackground() {
+        builder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                System.err.println("Search index build failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Builds a fresh index from the database in id-keyset batches and adopts it under the write
+     * lock, the same way as {@link ProductFacetIndex#rebuild()}.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ProductSearchIndex next = new ProductSearchIndex();
+        lock.writeLock().lock();
+        try {
+            building = next;
+            changedDuringBuild = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        boolean complete = false;
+        try {
+            List<ProductSearchRow> batch;
+            int afterId = 0;
+            while (!(batch = productRepo.findSearchRowsAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE))).isEmpty()) {
+                lock.writeLock().lock();
+                try {
+                    for (ProductSearchRow row : batch) {
+                        if (!changedDuringBuild.contains(row.id())) {
+                            next.addDocument(row.summary(), row.description());
+                        }
+                    }
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+            complete = true;
+        } finally {
+            lock.writeLock().lock();
+            try {
+                if (complete) {
+                    postings = next.postings;
+                    documents = next.documents;
+                    totalLength = next.totalLength;
+                    ready = true;
+                }
+                building = null;
+                changedDuringBuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        System.out.println("Search index built with " + next.documents.size() + " products in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (building != null) {
+                changedDuringBuild.add(event.productId());
+                building.apply(event);
+            }
+            apply(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ranks products against the keyword. Query terms match whole index terms, except the
+     * last one, which also matches as a prefix so results update while the user types.
+     */
+    public Page<ProductSummary> search(String keyword, int page, int size) {
+        PageRequest pageRequest = PageRequest.of(page, size);
+        lock.readLock().lock();
+        try {
+            Map<Integer, Double> scores = score(keyword);
+            int from = (int) Math.min(pageRequest.getOffset(), scores.size());
+            int to = Math.min(from + size, scores.size());
+            List<Map.Entry<Integer, Double>> top = top(scores, to);
+            List<ProductSummary> content = new ArrayList<>(to - from);
+            for (Map.Entry<Integer, Double> entry : top.subList(from, to)) {
+                content.add(documents.get(entry.getKey()).summary());
+            }
+            return new PageImpl<>(content, pageRequest, scores.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of every product matching the keyword, best match first.
+     */
+    public List<Integer> rankedIds(String keyword) {
+        lock.readLock().lock();
+        try {
+            return rank(keyword);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Callers hold the read lock
+    private List<Integer> rank(String keyword) {
+        List<Map.Entry<Integer, Double>> ranked = new ArrayList<>(score(keyword).entrySet());
+        ranked.sort(RANKING);
+        List<Integer> ids = new ArrayList<>(ranked.size());
+        for (Map.Entry<Integer, Double> entry : ranked) {
+            ids.add(entry.getKey());
+        }
+        return ids;
+    }
+
+    /**
+     * The best {@code limit} entries, best first. Keeps a heap of at most {@code limit} entries
+     * with the worst on top, so a page costs O(n log k) rather than sorting every match.
+     */
+    static List<Map.Entry<Integer, Double>> top(Map<Integer, Double> scores, int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        PriorityQueue<Map.Entry<Integer, Double>> heap = new PriorityQueue<>(limit, RANKING.reversed());
+        for (Map.Entry<Integer, Double> entry : scores.entrySet()) {
+            if (heap.size() < limit) {
+                heap.add(entry);
+            } else if (RANKING.compare(entry, heap.peek()) < 0) {
+                heap.poll();
+                heap.add(entry);
+            }
+        }
+        List<Map.Entry<Integer, Double>> top = new ArrayList<>(heap);
+        top.sort(RANKING);
+        return top;
+    }
+
+    // BM25 score of every product matching the keyword; callers hold the read lock
+    private Map<Integer, Double> score(String keyword) {
+        List<String> queryTerms = tokenize(keyword);
+        if (queryTerms.isEmpty()) {
+            return new HashMap<>();
+        }
+
+        Map<Integer, Double> scores = new HashMap<>();
+        double averageLength = documents.isEmpty() ? 1 : (double) totalLength / documents.size();
+        for (int i = 0; i < queryTerms.size(); i++) {
+            String term = queryTerms.get(i);
+            Map<String, Map<Integer, Integer>> matches = i == queryTerms.size() - 1
+                    ? postings.subMap(term, true, term + Character.MAX_VALUE, false)
+                    : postings.containsKey(term) ? Map.of(term, postings.get(term)) : Map.of();
+            for (Map<Integer, Integer> termPostings : matches.values()) {
+                double idf = Math.log(1 + (documents.size() - termPostings.size() + 0.5)
+                        / (termPostings.size() + 0.5));
+                for (Map.Entry<Integer, Integer> posting : termPostings.entrySet()) {
+                    Document document = documents.get(posting.getKey());
+                    double tf = posting.getValue();
+                    double norm = tf + K1 * (1 - B + B * document.length() / averageLength);
+                    scores.merge(posting.getKey(), idf * tf * (K1 + 1) / norm, Double::sum);
+                }
+            }
+        }
+
+        return scores;
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    // Callers hold the write lock
+    private void apply(ProductChangedEvent event) {
+        removeDocument(event.productId());
+        if (event.product() != null) {
+            addDocument(ProductSummary.of(event.product()), event.product().getDescription());
+        }
+    }
+
+    private void addDocument(ProductSummary summary, String description) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        addField(frequencies, summary.name(), NAME_WEIGHT);
+        addField(frequencies, summary.brand(), BRAND_WEIGHT);
+        addField(frequencies, summary.category(), CATEGORY_WEIGHT);
+        addField(frequencies, description, DESCRIPTION_WEIGHT);
+
+        int length = 0;
+        for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+            postings.computeIfAbsent(entry.getKey(), term -> new HashMap<>()).put(summary.id(), entry.getValue());
+            length += entry.getValue();
+        }
+        documents.put(summary.id(), new Document(summary, frequencies, length));
+        totalLength += length;
+    }
+
+    private void removeDocument(int productId) {
+        Document document = documents.remove(productId);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.termFrequencies().keySet()) {
+            Map<Integer, Integer> termPostings = postings.get(term);
+            termPostings.remove(productId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length();
+    }
+
+    private static void addField(Map<String, Integer> frequencies, String value, int weight) {
+        for (String token : tokenize(value)) {
+            frequencies.merge(token, weight, Integer::sum);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
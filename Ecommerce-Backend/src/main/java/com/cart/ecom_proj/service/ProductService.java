@@ -1,25 +1,32 @@
 package com.cart.ecom_proj.service;
 
+import com.cart.ecom_proj.dto.CategorySnapshot;
+import com.cart.ecom_proj.dto.FacetedProducts;
+import com.cart.ecom_proj.dto.ProductCursor;
+import com.cart.ecom_proj.dto.ProductFilter;
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.event.ProductChangedEvent;
 import com.cart.ecom_proj.model.Product;
 import com.cart.ecom_proj.repo.ProductRepo;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.awt.Color;
-import java.awt.Font;
-import java.awt.FontMetrics;
-import java.awt.Graphics2D;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import javax.imageio.ImageIO;
 
 @Service
 public class ProductService {
@@ -27,146 +34,177 @@ public class ProductService {
     @Autowired
     private ProductRepo repo;
 
-    public List<Product> getAllProducts() {
-        return repo.findAll();
+    @Autowired
+    private ProductImageService imageService;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Autowired
+    private ProductSuggestIndex suggestIndex;
+
+    @Autowired
+    private ProductFacetIndex facetIndex;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    public Page<ProductSummary> getProductSummaries(Pageable pageable) {
+        return repo.findAllSummaries(pageable);
     }
 
-    public Page<Product> getAllProducts(Pageable pageable) {
-        return repo.findAll(pageable);
+    /**
+     * Cursor-mode listing. Fetches one extra row to learn whether another page exists;
+     * the returned list holds at most {@code size} rows.
+     */
+    public List<ProductSummary> getProductSummariesAfter(String sortBy, boolean descending, ProductCursor cursor,
+                                                         int size) {
+        return repo.findSummariesAfter(sortBy, descending, cursor, size + 1);
     }
 
+    /**
+     * Served from {@link ProductCache}; the returned product is shared and must not be modified.
+     */
     public Product getProductById(int id) {
-        return repo.findById(id).orElse(null);
+        return productCache.get(id, productId -> repo.findById(productId).orElse(null));
+    }
+
+    public List<Product> getProductsByIds(Collection<Integer> ids) {
+        return repo.findAllById(ids);
+    }
+
+    public ProductImageRef getImageRef(int id) {
+        return repo.findImageRefById(id).orElse(null);
     }
 
     public Product addProduct(Product product, MultipartFile imageFile) throws IOException {
-        product.setImageName(imageFile.getOriginalFilename());
-        product.setImageType(imageFile.getContentType());
-        product.setImageDate(imageFile.getBytes());
-        return repo.save(product);
+        imageService.attachImage(product, imageFile);
+        Product saved = repo.save(product);
+        eventPublisher.publishEvent(ProductChangedEvent.created(saved));
+        return saved;
     }
 
     public Product updateProduct(int id, Product product, MultipartFile imageFile) throws IOException {
-        product.setImageDate(imageFile.getBytes());
-        product.setImageName(imageFile.getOriginalFilename());
-        product.setImageType(imageFile.getContentType());
-        return repo.save(product);
+        String previousKey = repo.findById(id).map(Product::getImageKey).orElse(null);
+        imageService.attachImage(product, imageFile);
+        Product saved = repo.save(product);
+        imageService.releaseImage(previousKey);
+        eventPublisher.publishEvent(ProductChangedEvent.updated(saved));
+        return saved;
     }
 
     public void deleteProduct(int id) {
+        String imageKey = repo.findById(id).map(Product::getImageKey).orElse(null);
         repo.deleteById(id);
+        imageService.releaseImage(imageKey);
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(id));
     }
 
-    public List<Product> searchProducts(String keyword) {
-        return repo.searchProducts(keyword);
-    }
-
-    public List<Product> getProductsByCategory(String category) {
-        return repo.findByCategory(category);
+    /**
+     * Ranked search from the in-memory index. Until the index has been built at startup
+     * this falls back to the database LIKE query.
+     */
+    public Page<ProductSummary> searchProducts(String keyword, int page, int size) {
+        if (searchIndex.isReady()) {
+            return searchIndex.search(keyword, page, size);
+        }
+        List<ProductSummary> matches = repo.searchProductSummaries(keyword);
+        int from = (int) Math.min((long) page * size, matches.size());
+        int to = Math.min(from + size, matches.size());
+        return new PageImpl<>(matches.subList(from, to), PageRequest.of(page, size), matches.size());
     }
 
-    public List<String> getAllCategories() {
-        return repo.findAllCategories();
+    /**
+     * Typeahead from the suggest index. Until it has been built at startup this falls back to
+     * product names starting with the prefix.
+     */
+    public List<ProductSuggestion> suggestProducts(String prefix, int limit) {
+        if (suggestIndex.isReady()) {
+            return suggestIndex.suggest(prefix, limit);
+        }
+        if (prefix == null || prefix.isBlank() || limit < 1) {
+            return List.of();
+        }
+        return repo.findSummariesByNamePrefix(prefix.trim(), PageRequest.of(0, limit)).stream()
+                .map(product -> ProductSuggestion.product(product.id(), product.name()))
+                .toList();
     }
 
-    public void updateProductImagesWithRealImages() {
-        List<Product> existingProducts = repo.findAll();
-
-        // Map product names to their corresponding image files
-        Map<String, String> productImageMap = new HashMap<>();
-        productImageMap.put("Wireless Headphones", "wireless_headphones.jpg");
-        productImageMap.put("Smartphone X12", "smartphone_x12.jpg");
-        productImageMap.put("Ultrabook Pro 14", "ultrabook_pro_14.jpg");
-        productImageMap.put("Gaming Mouse GX", "gaming_mouse_gx.jpg");
-        productImageMap.put("Mechanical Keyboard MK87", "mechanical_keyboard_mk87.jpg");
-        productImageMap.put("4K UHD Monitor 27\"", "4k_monitor_27.jpg");
-        productImageMap.put("Bluetooth Speaker Mini", "bluetooth_speaker_mini.jpg");
-
-        for (Product product : existingProducts) {
-            // Try exact match first, then case-insensitive match
-            String imageFileName = productImageMap.get(product.getName());
-            if (imageFileName == null) {
-                // Try case-insensitive match
-                for (Map.Entry<String, String> entry : productImageMap.entrySet()) {
-                    if (entry.getKey().equalsIgnoreCase(product.getName())) {
-                        imageFileName = entry.getValue();
-                        break;
-                    }
-                }
-            }
-
-            if (imageFileName != null) {
-                // Load real image from resources
-                byte[] imageData = loadImageFromResources(imageFileName);
-                product.setImageName(imageFileName);
-                product.setImageType("image/jpeg");
-                product.setImageDate(imageData);
-                System.out.println("Updated product '" + product.getName() + "' with real image: " + imageFileName);
+    /**
+     * Combined filter over the in-memory facet bitmaps. Keyword matches come from the search
+     * index, or from the LIKE query while the index is still building. Until the facet index
+     * has been built at startup the page comes from the database, without facet counts.
+     */
+    public FacetedProducts browseProducts(ProductFilter filter, String sortBy, boolean descending,
+                                          int page, int size) {
+        if (!facetIndex.isReady()) {
+            return browseFromDatabase(filter, sortBy, descending, page, size);
+        }
+        List<Integer> keywordMatches = null;
+        if (filter.hasKeyword()) {
+            if (searchIndex.isReady()) {
+                keywordMatches = searchIndex.rankedIds(filter.keyword());
             } else {
-                // Fallback to placeholder for unknown products
-                product.setImageName(product.getName().toLowerCase().replace(" ", "_") + ".png");
-                product.setImageType("image/png");
-                product.setImageDate(generatePlaceholderImage(product.getName(), Color.GRAY));
-                System.out.println("Updated product '" + product.getName() + "' with placeholder image");
+                keywordMatches = repo.searchProductSummaries(filter.keyword()).stream()
+                        .map(ProductSummary::id)
+                        .toList();
             }
         }
-
-        repo.saveAll(existingProducts);
-        System.out.println("Updated " + existingProducts.size() + " existing products with images.");
+        return facetIndex.filter(filter, keywordMatches, sortBy, descending, page, size);
     }
 
-    private byte[] loadImageFromResources(String imageFileName) {
-        try {
-            // Load image from resources/images directory
-            String resourcePath = "images/" + imageFileName;
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resourcePath);
-
-            if (inputStream == null) {
-                System.err.println("Image not found in resources: " + resourcePath);
-                return generatePlaceholderImage(imageFileName.replace(".jpg", ""), Color.GRAY);
+    private FacetedProducts browseFromDatabase(ProductFilter filter, String sortBy, boolean descending,
+                                               int page, int size) {
+        Page<ProductSummary> result;
+        if (filter.hasKeyword()) {
+            List<ProductSummary> matches = new ArrayList<>(repo.searchProductSummaries(filter.keyword()));
+            matches.removeIf(product -> !filter.matches(product));
+            if (sortBy != null) {
+                Comparator<ProductSummary> comparator = ProductFacetIndex.comparator(sortBy);
+                matches.sort(descending ? comparator.reversed() : comparator);
             }
-
-            return inputStream.readAllBytes();
-
-        } catch (IOException e) {
-            System.err.println("Error loading image: " + imageFileName + " - " + e.getMessage());
-            return generatePlaceholderImage(imageFileName.replace(".jpg", ""), Color.GRAY);
+            int from = (int) Math.min((long) page * size, matches.size());
+            int to = Math.min(from + size, matches.size());
+            result = new PageImpl<>(matches.subList(from, to), PageRequest.of(page, size), matches.size());
+        } else {
+            Sort sort = Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, sortBy == null ? "id" : sortBy);
+            result = repo.filterSummaries(filter, PageRequest.of(page, size, sort));
         }
+        return new FacetedProducts(result.getContent(), page, size, result.getTotalElements(),
+                result.getTotalPages(), List.of(), List.of(), List.of(), 0);
     }
 
-    private byte[] generatePlaceholderImage(String productName, Color bgColor) {
-        try {
-            // Create a very small 50x50 image to fit in database constraints
-            BufferedImage image = new BufferedImage(50, 50, BufferedImage.TYPE_INT_RGB);
-            Graphics2D g2d = image.createGraphics();
-
-            // Fill background with the provided color
-            g2d.setColor(bgColor);
-            g2d.fillRect(0, 0, 50, 50);
-
-            // Add a border
-            g2d.setColor(bgColor.darker());
-            g2d.drawRect(0, 0, 49, 49);
-
-            // Add first letter of product name
-            g2d.setColor(Color.WHITE);
-            g2d.setFont(new Font("Arial", Font.BOLD, 20));
-            String letter = productName.substring(0, 1).toUpperCase();
-            FontMetrics fm = g2d.getFontMetrics();
-            int x = (50 - fm.stringWidth(letter)) / 2;
-            int y = (50 + fm.getAscent()) / 2;
-            g2d.drawString(letter, x, y);
+    public List<ProductSummary> getProductsByCategory(String category) {
+        return repo.findSummariesByCategoryKey(Product.filterKey(category));
+    }
 
-            g2d.dispose();
+    /**
+     * Database-backed filter over the indexed key columns; see {@link ProductRepo#filterSummaries}.
+     */
+    public Page<ProductSummary> filterProducts(ProductFilter filter, Pageable pageable) {
+        return repo.filterSummaries(filter, pageable);
+    }
 
-            // Convert to byte array with high compression
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            ImageIO.write(image, "png", baos);
-            return baos.toByteArray();
+    // Rows written before the key columns existed (ddl-auto=update) get their keys here
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillFilterKeys() {
+        int updated = repo.backfillFilterKeys();
+        if (updated > 0) {
+            System.out.println("Backfilled category and brand keys for " + updated + " products");
+        }
+    }
 
-        } catch (Exception e) {
-            // Return minimal byte array if image generation fails
-            return new byte[] { (byte) 0x89, 0x50, 0x4E, 0x47 }; // PNG header only
+    /**
+     * Category counts from the facet index, or grouped by the database until the index has been
+     * built at startup.
+     */
+    public CategorySnapshot getCategorySnapshot() {
+        if (!facetIndex.isReady()) {
+            return ProductFacetIndex.snapshotOf(repo.countByCategory());
         }
+        return facetIndex.categorySnapshot();
     }
 }
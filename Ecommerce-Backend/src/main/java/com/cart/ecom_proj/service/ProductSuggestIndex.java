@@ -0,0 +1,322 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.event.CatalogImportedEvent;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.repo.ProductRepo;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Prefix index behind the search-box typeahead. Every product name, brand and category is
+ * stored under its normalized text and under each word suffix of it ("wireless headphones",
+ * "headphones"), in sorted maps, so a prefix lookup is a range scan that never touches the
+ * database. Reads are lock-free; writes come from {@link ProductChangedEvent}s, and a rebuild
+ * is published in one swap, so a lookup never sees a half-built index.
+ */
+@Service
+public class ProductSuggestIndex {
+
+    // Separates the term from the entry identity in map keys; sorts below any term character
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    /**
+     * Upper bound on product entries examined per rank group and lookup, so one-letter prefixes
+     * stay cheap. Product keys start with their rank group (name match before later-word match,
+     * available before unavailable), and groups are scanned best first, so the cap never lets a
+     * lower group crowd out a higher one. Within a group the cap applies in alphabetical order:
+     * for a very short prefix over a large catalog, the shortest-name-first ordering only covers
+     * the first MAX_PRODUCT_SCAN matches of the group.
+     */
+    private static final int MAX_PRODUCT_SCAN = 256;
+    private static final int RANK_GROUPS = 4;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private record Entry(ProductSuggestion suggestion, String normalizedText) {
+    }
+
+    private record IndexedProduct(String name, String brand, String category, boolean available) {
+    }
+
+    private record Label(String text, int productCount) {
+    }
+
+    // Everything a lookup reads, so a rebuild can replace it in one volatile write
+    private record Entries(ConcurrentSkipListMap<String, Entry> products, ConcurrentSkipListMap<String, Entry> labels) {
+    }
+
+    @Autowired
+    private ProductRepo productRepo;
+
+    private volatile Entries entries = new Entries(new ConcurrentSkipListMap<>(), new ConcurrentSkipListMap<>());
+
+    // Writer-side bookkeeping, guarded by this
+    private Map<Integer, IndexedProduct> products = new HashMap<>();
+    private Map<String, Label> brands = new HashMap<>();
+    private Map<String, Label> categories = new HashMap<>();
+
+    // While a rebuild runs: the index being built and the products changed since it started
+    private ProductSuggestIndex building;
+    private Set<Integer> changedDuringBuild;
+
+    private final ExecutorService builder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "suggest-index-build");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile boolean ready;
+
+    /**
+     * False until the first build has finished; callers use the database until then.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener({ApplicationReadyEvent.class, CatalogImportedEvent.class})
+    public void rebuildInBackground() {
+        builder.execute(() -> {
+            try {
+                rebuild();
+            } catch (RuntimeException e) {
+                System.err.println("Suggest index build failed: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Builds a fresh index from the database and publishes it in one swap; lookups keep using
+     * the current one meanwhile. Changes during the build are handled as in
+     * {@link ProductFacetIndex#rebuild()}.
+     */
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        ProductSuggestIndex next = new ProductSuggestIndex();
+        synchronized (this) {
+            building = next;
+            changedDuringBuild = new HashSet<>();
+        }
+        boolean complete = false;
+        try {
+            List<ProductSummary> batch;
+            int afterId = 0;
+            while (!(batch = productRepo.findSummariesAfter(afterId, PageRequest.of(0, REBUILD_BATCH_SIZE))).isEmpty()) {
+                synchronized (this) {
+                    for (ProductSummary product : batch) {
+                        if (!changedDuringBuild.contains(product.id())) {
+                            next.addProduct(product);
+                        }
+                    }
+                }
+                afterId = batch.get(batch.size() - 1).id();
+            }
+            complete = true;
+        } finally {
+            synchronized (this) {
+                if (complete) {
+                    products = next.products;
+                    brands = next.brands;
+                    categories = next.categories;
+                    entries = next.entries;
+                    ready = true;
+                }
+                building = null;
+                changedDuringBuild = null;
+            }
+        }
+        System.out.println("Suggest index built with " + next.entries.products().size() + " product terms and "
+                + next.entries.labels().size() + " brand/category terms in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (building != null) {
+            changedDuringBuild.add(event.productId());
+            building.apply(event);
+        }
+        apply(event);
+    }
+
+    /**
+     * Returns up to {@code limit} suggestions for the prefix: the most common matching
+     * categories and brands first (at most a third of the slots), then products whose name
+     * starts with the prefix, then products matching on a later word.
+     */
+    public List<ProductSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit < 1) {
+            return List.of();
+        }
+        String upper = normalized + Character.MAX_VALUE;
+        Entries current = entries;
+
+        Map<String, Entry> labelMatches = new LinkedHashMap<>();
+        for (Map.Entry<String, Entry> match : current.labels().subMap(normalized, upper).entrySet()) {
+            labelMatches.putIfAbsent(identity(match.getKey()), match.getValue());
+        }
+        List<Entry> labels = new ArrayList<>(labelMatches.values());
+        labels.sort(Comparator.comparingInt((Entry entry) -> entry.suggestion().productCount()).reversed()
+                .thenComparing(entry -> entry.suggestion().text()));
+
+        // Products cannot fill more than limit slots, so lower groups are skipped once that many are found
+        List<Entry> productList = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int group = 0; group < RANK_GROUPS && productList.size() < limit; group++) {
+            List<Entry> groupMatches = new ArrayList<>();
+            int scanned = 0;
+            for (Map.Entry<String, Entry> match
+                    : current.products().subMap(group + normalized, group + upper).entrySet()) {
+                if (scanned++ == MAX_PRODUCT_SCAN) {
+                    break;
+                }
+                // A product matching on its name and a later word counts once, in the better group
+                if (seen.add(identity(match.getKey()))) {
+                    groupMatches.add(match.getValue());
+                }
+            }
+            groupMatches.sort(Comparator.comparingInt((Entry entry) -> entry.normalizedText().length())
+                    .thenComparing(Entry::normalizedText));
+            productList.addAll(groupMatches);
+        }
+
+        int labelSlots = Math.min(labels.size(), Math.max(1, limit / 3));
+        List<ProductSuggestion> suggestions = new ArrayList<>(limit);
+        for (Entry entry : labels.subList(0, labelSlots)) {
+            suggestions.add(entry.suggestion());
+        }
+        for (Entry entry : productList) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            suggestions.add(entry.suggestion());
+        }
+        for (Entry entry : labels.subList(labelSlots, labels.size())) {
+            if (suggestions.size() == limit) {
+                break;
+            }
+            suggestions.add(entry.suggestion());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Lower-cases and collapses every run of non-alphanumeric characters to one space, so
+     * "Wi-Fi  Router" and "wi fi router" index and look up the same way.
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.toLowerCase(Locale.ROOT).replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+
+    // The normalized text and each suffix of it that starts at a word boundary
+    static List<String> terms(String normalizedText) {
+        List<String> terms = new ArrayList<>();
+        if (normalizedText.isEmpty()) {
+            return terms;
+        }
+        terms.add(normalizedText);
+        int space = normalizedText.indexOf(' ');
+        while (space >= 0) {
+            terms.add(normalizedText.substring(space + 1));
+            space = normalizedText.indexOf(' ', space + 1);
+        }
+        return terms;
+    }
+
+    private static String identity(String key) {
+        return key.substring(key.indexOf(KEY_SEPARATOR) + 1);
+    }
+
+    // Rank group first, then the term, so each group is one contiguous range per prefix
+    private static String productKey(String name, String term, boolean available, int productId) {
+        int group = (term.length() == name.length() ? 0 : 2) + (available ? 0 : 1);
+        return group + term + KEY_SEPARATOR + productId;
+    }
+
+    // Callers hold this
+    private void apply(ProductChangedEvent event) {
+        removeProduct(event.productId());
+        if (event.product() != null) {
+            addProduct(ProductSummary.of(event.product()));
+        }
+    }
+
+    private void addProduct(ProductSummary product) {
+        IndexedProduct indexed = new IndexedProduct(product.name(), product.brand(), product.category(),
+                product.productAvailable());
+        products.put(product.id(), indexed);
+
+        String name = normalize(indexed.name());
+        Entry entry = new Entry(ProductSuggestion.product(product.id(), indexed.name()), name);
+        for (String term : terms(name)) {
+            entries.products().put(productKey(name, term, indexed.available(), product.id()), entry);
+        }
+        adjustLabel(brands, ProductSuggestion.BRAND, indexed.brand(), 1);
+        adjustLabel(categories, ProductSuggestion.CATEGORY, indexed.category(), 1);
+    }
+
+    private void removeProduct(int productId) {
+        IndexedProduct indexed = products.remove(productId);
+        if (indexed == null) {
+            return;
+        }
+        String name = normalize(indexed.name());
+        for (String term : terms(name)) {
+            entries.products().remove(productKey(name, term, indexed.available(), productId));
+        }
+        adjustLabel(brands, ProductSuggestion.BRAND, indexed.brand(), -1);
+        adjustLabel(categories, ProductSuggestion.CATEGORY, indexed.category(), -1);
+    }
+
+    // Entries for a label are replaced in place, so readers never see it missing mid-update
+    private void adjustLabel(Map<String, Label> labels, String type, String text, int delta) {
+        String normalized = normalize(text);
+        if (normalized.isEmpty()) {
+            return;
+        }
+        Label current = labels.get(normalized);
+        int count = (current == null ? 0 : current.productCount()) + delta;
+        List<String> terms = terms(normalized);
+        if (count <= 0) {
+            labels.remove(normalized);
+            for (String term : terms) {
+                entries.labels().remove(term + KEY_SEPARATOR + type + KEY_SEPARATOR + normalized);
+            }
+            return;
+        }
+        Label label = new Label(current == null ? text.trim() : current.text(), count);
+        labels.put(normalized, label);
+        Entry entry = new Entry(ProductSuggestion.label(type, label.text(), count), normalized);
+        for (String term : terms) {
+            entries.labels().put(term + KEY_SEPARATOR + type + KEY_SEPARATOR + normalized, entry);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+}
@@ -0,0 +1,232 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ProductUpdate;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes product price and stock changes to server-sent event subscribers.
+ * <p>
+ * Changes are not written to a connection as they happen. Each subscriber keeps only the
+ * latest pending update per product, and a flush every {@code app.sse.flush-interval-ms}
+ * sends them as one "products" event, so a burst of orders against one product costs a
+ * single message. A connection has at most one write in flight; while a slow client is still
+ * receiving, its updates keep coalescing instead of queueing. If a subscriber falls so far
+ * behind that more than {@code app.sse.max-pending} products are pending, the backlog is
+ * dropped and a "resync" event tells the client to reload what it shows.
+ */
+@Service
+public class ProductUpdateStream {
+
+    private final class Subscriber {
+        final SseEmitter emitter;
+        // Null means every product
+        final Set<Integer> productIds;
+        // Latest update per product, in the order products first changed; guarded by itself
+        final Map<Integer, ProductUpdate> pending = new LinkedHashMap<>();
+        boolean overflowed;
+        final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, Set<Integer> productIds) {
+            this.emitter = emitter;
+            this.productIds = productIds;
+        }
+
+        void offer(ProductUpdate update) {
+            if (productIds != null && !productIds.contains(update.id())) {
+                return;
+            }
+            synchronized (pending) {
+                if (pending.size() >= maxPending && !pending.containsKey(update.id())) {
+                    pending.clear();
+                    overflowed = true;
+                }
+                pending.put(update.id(), update);
+            }
+        }
+
+        boolean hasPending() {
+            synchronized (pending) {
+                return overflowed || !pending.isEmpty();
+            }
+        }
+    }
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final int maxSubscribers;
+    private final int maxPending;
+    private final long timeoutMillis;
+    private final long flushIntervalMillis;
+    private final long heartbeatSeconds;
+    private final ScheduledExecutorService scheduler;
+    private final ThreadPoolExecutor senders;
+
+    public ProductUpdateStream(@Value("${app.sse.max-subscribers:10000}") int maxSubscribers,
+                               @Value("${app.sse.max-pending:1000}") int maxPending,
+                               @Value("${app.sse.flush-interval-ms:250}") long flushIntervalMillis,
+                               @Value("${app.sse.heartbeat-seconds:20}") long heartbeatSeconds,
+                               @Value("${app.sse.timeout-ms:1800000}") long timeoutMillis,
+                               @Value("${app.sse.sender-threads:4}") int senderThreads,
+                               MeterRegistry registry) {
+        this.maxSubscribers = maxSubscribers;
+        this.maxPending = maxPending;
+        this.timeoutMillis = timeoutMillis;
+        this.flushIntervalMillis = flushIntervalMillis;
+        this.heartbeatSeconds = heartbeatSeconds;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "product-stream-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger threadCount = new AtomicInteger();
+        // One task per subscriber at most, so the queue never needs to be larger than that
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(maxSubscribers), runnable -> {
+                    Thread thread = new Thread(runnable, "product-stream-send-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.senders.allowCoreThreadTimeOut(true);
+        Gauge.builder("sse.subscribers", subscribers, Set::size).tag("stream", "products").register(registry);
+    }
+
+    // Not in the constructor, so the flush and heartbeat tasks never run against a half-built stream
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::flush, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Opens a stream of updates for the given products, or all products when null. Returns
+     * null when the subscriber limit has been reached.
+     */
+    public SseEmitter subscribe(Set<Integer> productIds) {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, productIds == null ? null : Set.copyOf(productIds));
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        try {
+            // Commits the response headers, so the client sees the stream open right away
+            emitter.send(SseEmitter.event().comment("connected"));
+        } catch (IOException e) {
+            subscribers.remove(subscriber);
+            emitter.completeWithError(e);
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        ProductUpdate update = ProductUpdate.of(event);
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(update);
+        }
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    void flush() {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.hasPending()) {
+                dispatch(subscriber, () -> sendPending(subscriber));
+            }
+        }
+    }
+
+    // Proxies drop idle connections, and a failed write is how a vanished client is noticed
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            dispatch(subscriber, () -> send(subscriber, SseEmitter.event().comment("ping")));
+        }
+    }
+
+    // Skips subscribers that still have a write in flight; their updates keep coalescing
+    private void dispatch(Subscriber subscriber, Runnable write) {
+        if (!subscriber.sending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            senders.execute(() -> {
+                try {
+                    write.run();
+                } finally {
+                    subscriber.sending.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            subscriber.sending.set(false);
+        }
+    }
+
+    private void sendPending(Subscriber subscriber) {
+        List<ProductUpdate> updates;
+        boolean resync;
+        synchronized (subscriber.pending) {
+            updates = new ArrayList<>(subscriber.pending.values());
+            resync = subscriber.overflowed;
+            subscriber.pending.clear();
+            subscriber.overflowed = false;
+        }
+        if (resync) {
+            send(subscriber, SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+        }
+        if (!updates.isEmpty()) {
+            send(subscriber, SseEmitter.event().name("products").data(updates, MediaType.APPLICATION_JSON));
+        }
+    }
+
+    private void send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.emitter.complete();
+        }
+        subscribers.clear();
+    }
+}
@@ -0,0 +1,86 @@
+-- Schema as it stood before versioned migrations. Existing databases already have it and
+-- are baselined at version 1 (spring.flyway.baseline-on-migrate), so this only runs on an
+-- empty database; every later change is a script of its own.
+CREATE TABLE users (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    email VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    first_name VARCHAR(255) NOT NULL,
+    last_name VARCHAR(255) NOT NULL,
+    phone_number VARCHAR(255),
+    country VARCHAR(255),
+    role ENUM ('ADMIN','USER'),
+    enabled BIT NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_users_username UNIQUE (username),
+    CONSTRAINT uk_users_email UNIQUE (email)
+) ENGINE=InnoDB;
+
+CREATE TABLE product (
+    id INT NOT NULL AUTO_INCREMENT,
+    name VARCHAR(255),
+    description VARCHAR(255),
+    brand VARCHAR(255),
+    price DECIMAL(38,2),
+    category VARCHAR(255),
+    release_date DATETIME(6),
+    product_available BIT NOT NULL,
+    stock_quantity INT NOT NULL,
+    image_name VARCHAR(255),
+    image_type VARCHAR(255),
+    image_date LONGBLOB,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE cart_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    price DECIMAL(38,2) NOT NULL,
+    added_at DATETIME(6),
+    updated_at DATETIME(6),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_cart_items_user FOREIGN KEY (user_id) REFERENCES users (id),
+    CONSTRAINT fk_cart_items_product FOREIGN KEY (product_id) REFERENCES product (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE orders (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    user_id BIGINT NOT NULL,
+    order_date DATETIME(6),
+    total_amount DECIMAL(38,2) NOT NULL,
+    status ENUM ('CANCELLED','CONFIRMED','DELIVERED','PENDING','SHIPPED'),
+    shipping_address VARCHAR(255),
+    payment_method VARCHAR(255),
+    phone_number VARCHAR(255),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_orders_user FOREIGN KEY (user_id) REFERENCES users (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE order_items (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    order_id BIGINT NOT NULL,
+    product_id INT NOT NULL,
+    quantity INT NOT NULL,
+    price DECIMAL(38,2) NOT NULL,
+    total_price DECIMAL(38,2) NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT fk_order_items_order FOREIGN KEY (order_id) REFERENCES orders (id),
+    CONSTRAINT fk_order_items_product FOREIGN KEY (product_id) REFERENCES product (id)
+) ENGINE=InnoDB;
+
+CREATE TABLE purchases (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    product_name VARCHAR(255) NOT NULL,
+    quantity INT NOT NULL,
+    purchase_date DATE NOT NULL,
+    delivery_time VARCHAR(255) NOT NULL,
+    delivery_location VARCHAR(255) NOT NULL,
+    message TEXT,
+    created_at DATETIME(6) NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
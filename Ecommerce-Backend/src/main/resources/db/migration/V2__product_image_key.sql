@@ -0,0 +1,8 @@
+-- Product images move out of the row into the content-addressed image store. The row keeps
+-- the store key (SHA-256 of the bytes) and the size.
+--
+-- image_date stays for now: ImageBackfill copies its bytes into the store at startup, sets
+-- image_key and clears it. Once no row has image_date set, drop it with
+--   ALTER TABLE product DROP COLUMN image_date;
+ALTER TABLE product ADD COLUMN image_key VARCHAR(255) NULL;
+ALTER TABLE product ADD COLUMN image_size BIGINT NULL;
@@ -0,0 +1,8 @@
+-- Image bytes live in the on-disk image store, keyed by the product's image_key.
+-- releaseImage checks whether any other product still refers to a key before deleting the
+-- file, so the lookup needs an index.
+CREATE INDEX idx_product_image_key ON product (image_key);
+
+-- Databases that ran with the product_images table keep it until ImageBackfill has copied
+-- its rows into the store and emptied it; after that it can go:
+--   DROP TABLE product_images;
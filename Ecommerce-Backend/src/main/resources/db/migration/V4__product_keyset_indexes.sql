@@ -0,0 +1,7 @@
+-- Keyset pagination (cursor mode of the product listing) seeks past the last (value, id) of
+-- the previous page. Each sort field needs an index on (field, id) so that is a range scan
+-- instead of a sort of the whole table. The id sort uses the primary key and price uses
+-- idx_product_price.
+CREATE INDEX idx_product_name ON product (name, id);
+CREATE INDEX idx_product_brand ON product (brand, id);
+CREATE INDEX idx_product_category ON product (category, id);
@@ -0,0 +1,4 @@
+-- Natural key for imported and seeded products. Existing rows keep NULL until the seeder or
+-- an import assigns one; MySQL allows any number of NULLs in a unique index.
+ALTER TABLE product ADD COLUMN sku VARCHAR(255) NULL;
+CREATE UNIQUE INDEX uk_product_sku ON product (sku);
@@ -0,0 +1,9 @@
+-- Shared catalog version behind the ETag and Last-Modified of public catalog responses, so
+-- every instance issues the same validators. The application creates the single row on
+-- first start and bumps it after every catalog write; updated_at is UTC.
+CREATE TABLE catalog_revision (
+    id INT NOT NULL,
+    version BIGINT NOT NULL,
+    updated_at DATETIME(6) NOT NULL,
+    PRIMARY KEY (id)
+);
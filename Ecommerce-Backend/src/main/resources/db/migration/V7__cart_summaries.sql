@@ -0,0 +1,16 @@
+-- Running totals of each user's cart, so the cart badge is one primary-key read. Cart
+-- mutations lock and adjust the row; CartSummaryService creates missing rows from the lines.
+CREATE TABLE cart_summaries (
+    user_id BIGINT NOT NULL,
+    total DECIMAL(38,2) NOT NULL,
+    item_count BIGINT NOT NULL,
+    line_count BIGINT NOT NULL,
+    updated_at DATETIME(6) NULL,
+    PRIMARY KEY (user_id)
+);
+
+-- Existing carts get their row now instead of on their next mutation
+INSERT INTO cart_summaries (user_id, total, item_count, line_count, updated_at)
+SELECT user_id, SUM(price * quantity), SUM(quantity), COUNT(*), NOW(6)
+FROM cart_items
+GROUP BY user_id;
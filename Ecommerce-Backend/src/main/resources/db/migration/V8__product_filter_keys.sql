@@ -0,0 +1,13 @@
+-- Normalized copies of category and brand (trimmed, lower case) that the product filter
+-- compares directly, and the composite indexes it reads: equality on the key, then range or
+-- order on price, with id making the order total. New rows get their keys from Product's
+-- @PrePersist/@PreUpdate and the JDBC import.
+ALTER TABLE product ADD COLUMN category_key VARCHAR(255) NULL;
+ALTER TABLE product ADD COLUMN brand_key VARCHAR(255) NULL;
+
+UPDATE product SET category_key = LOWER(TRIM(category)), brand_key = LOWER(TRIM(brand));
+
+CREATE INDEX idx_product_category_price ON product (category_key, price, id);
+CREATE INDEX idx_product_brand_price ON product (brand_key, price, id);
+CREATE INDEX idx_product_available_price ON product (product_available, price, id);
+CREATE INDEX idx_product_price ON product (price, id);
@@ -0,0 +1,84 @@
+package com.cart.ecom_proj.config;
+
+import com.cart.ecom_proj.service.CatalogVersion;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SecurityHeadersConfigTest {
+
+	private final CatalogVersion catalogVersion = mock(CatalogVersion.class);
+	private final SecurityHeadersConfig config = new SecurityHeadersConfig();
+
+	@BeforeEach
+	void setUp() {
+		when(catalogVersion.current()).thenReturn(new CatalogVersion.Validators("W/\"catalog-1\"", Instant.now()));
+		ReflectionTestUtils.setField(config, "catalogVersion", catalogVersion);
+		ReflectionTestUtils.setField(config, "catalogMaxAge", 60L);
+		ReflectionTestUtils.setField(config, "catalogStaleWhileRevalidate", 300L);
+	}
+
+	@Test
+	void publicCatalogReadsGetValidatorsAndSharedMaxAge() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertFalse(config.applyCachePolicy(new MockHttpServletRequest("GET", "/api/product/7"), response));
+		assertEquals("max-age=60, public, stale-while-revalidate=300", response.getHeader("Cache-Control"));
+		assertEquals(catalogVersion.current().etag(), response.getHeader("ETag"));
+		assertNotNull(response.getHeader("Last-Modified"));
+	}
+
+	@Test
+	void answersMatchingRevalidationWith304UntilTheCatalogChanges() {
+		String etag = catalogVersion.current().etag();
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/products");
+		// Weak comparison: a strong copy of the tag still matches
+		request.addHeader("If-None-Match", "\"other\", " + etag.substring(2));
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertTrue(config.applyCachePolicy(request, response));
+		assertEquals(304, response.getStatus());
+
+		when(catalogVersion.current()).thenReturn(new CatalogVersion.Validators("W/\"catalog-2\"", Instant.now()));
+		assertFalse(config.applyCachePolicy(request, new MockHttpServletResponse()));
+	}
+
+	@Test
+	void writesAndPrivateRoutesAreNotStored() {
+		MockHttpServletResponse post = new MockHttpServletResponse();
+		config.applyCachePolicy(new MockHttpServletRequest("POST", "/api/products/import"), post);
+		assertTrue(post.getHeader("Cache-Control").startsWith("no-store"));
+
+		MockHttpServletResponse cart = new MockHttpServletResponse();
+		config.applyCachePolicy(new MockHttpServletRequest("GET", "/api/cart/1"), cart);
+		assertTrue(cart.getHeader("Cache-Control").startsWith("no-store"));
+
+		MockHttpServletResponse job = new MockHttpServletResponse();
+		config.applyCachePolicy(new MockHttpServletRequest("GET", "/api/products/update-images/abc"), job);
+		assertTrue(job.getHeader("Cache-Control").startsWith("no-store"));
+
+		MockHttpServletResponse export = new MockHttpServletResponse();
+		config.applyCachePolicy(new MockHttpServletRequest("GET", "/api/products/export"), export);
+		assertTrue(export.getHeader("Cache-Control").startsWith("no-store"));
+		assertNull(export.getHeader("ETag"));
+	}
+
+	@Test
+	void leavesSelfCachedRoutesToTheirControllers() {
+		MockHttpServletResponse image = new MockHttpServletResponse();
+		config.applyCachePolicy(new MockHttpServletRequest("GET", "/api/product/7/image"), image);
+		assertNull(image.getHeader("Cache-Control"));
+
+		MockHttpServletResponse categories = new MockHttpServletResponse();
+		config.applyCachePolicy(new MockHttpServletRequest("GET", "/api/products/categories"), categories);
+		assertNull(categories.getHeader("ETag"));
+	}
+}
@@ -0,0 +1,159 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.OrderItem;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.model.User;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderViewTest {
+
+	private static final int ORDERS = 20;
+	private static final int ITEMS_PER_ORDER = 5;
+	private static final int ROUNDS = 200;
+
+	private final ObjectMapper mapper = new ObjectMapper().findAndRegisterModules()
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	@Test
+	void orderHistoryPayloadShrinksAgainstEntityAndLegacyPayloads() throws Exception {
+		byte[] image;
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream("images/wireless_headphones.jpg")) {
+			assertNotNull(in);
+			image = in.readAllBytes();
+		}
+
+		List<Order> orders = history();
+		List<OrderView> views = orders.stream().map(OrderView::of).toList();
+
+		// Shape of the history before images moved out of the product table
+		@SuppressWarnings("unchecked")
+		List<Map<String, Object>> legacy = mapper.convertValue(orders, List.class);
+		for (Map<String, Object> order : legacy) {
+			for (Object item : (List<?>) order.get("orderItems")) {
+				@SuppressWarnings("unchecked")
+				Map<String, Object> product = (Map<String, Object>) ((Map<String, Object>) item).get("product");
+				product.put("imageDate", image);
+			}
+		}
+
+		int legacyBytes = mapper.writeValueAsBytes(legacy).length;
+		int entityBytes = mapper.writeValueAsBytes(orders).length;
+		int viewBytes = mapper.writeValueAsBytes(views).length;
+
+		long entityNanos = time(() -> mapper.writeValueAsBytes(orders));
+		long viewNanos = time(() -> mapper.writeValueAsBytes(orders.stream().map(OrderView::of).toList()));
+		System.out.println("Order history of " + ORDERS + "x" + ITEMS_PER_ORDER + ": legacy=" + legacyBytes
+				+ "B, entity=" + entityBytes + "B (" + entityNanos / 1000 + "us), view=" + viewBytes + "B ("
+				+ viewNanos / 1000 + "us)");
+
+		assertTrue(viewBytes * 10 < entityBytes * 6);
+		assertTrue(viewBytes * 50 < legacyBytes);
+	}
+
+	@Test
+	void viewsKeepWhatTheClientReadsAndDropAccountAndDetailFields() throws Exception {
+		Order order = history().get(0);
+		Cart line = new Cart();
+		line.setUser(order.getUser());
+		line.setProduct(product(3));
+		line.setQuantity(2);
+		line.setPrice(new BigDecimal("99.99"));
+
+		String orderJson = mapper.writeValueAsString(OrderView.of(order));
+		String lineJson = mapper.writeValueAsString(CartItemView.of(line));
+
+		for (String json : List.of(orderJson, lineJson)) {
+			assertTrue(json.contains("\"name\":\"Wireless Headphones 3\""));
+			assertTrue(json.contains("\"stockQuantity\":30"));
+			assertTrue(json.contains("\"imageUrl\":\"/api/product/3/image?v=" + "0".repeat(64) + "\""));
+			assertFalse(json.contains("password"));
+			assertFalse(json.contains("description"));
+			assertFalse(json.contains("imageKey"));
+		}
+		assertTrue(orderJson.contains("\"status\":\"CONFIRMED\""));
+		assertTrue(lineJson.contains("\"quantity\":2"));
+	}
+
+	private interface Serialization {
+		Object run() throws Exception;
+	}
+
+	private static long time(Serialization serialization) throws Exception {
+		for (int i = 0; i < ROUNDS; i++) {
+			serialization.run();
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ROUNDS; i++) {
+			serialization.run();
+		}
+		return (System.nanoTime() - start) / ROUNDS;
+	}
+
+	private static List<Order> history() {
+		User user = new User();
+		user.setId(1L);
+		user.setEmail("customer@example.com");
+		user.setPassword("$2a$10$" + "x".repeat(53));
+		List<Order> orders = new ArrayList<>();
+		for (int o = 0; o < ORDERS; o++) {
+			Order order = new Order();
+			order.setId((long) o + 1);
+			order.setUser(user);
+			order.setStatus(Order.OrderStatus.CONFIRMED);
+			order.setOrderDate(LocalDateTime.of(2024, 1, 1, 12, 0).plusDays(o));
+			order.setShippingAddress("221B Baker Street, London");
+			order.setPaymentMethod("card");
+			order.setPhoneNumber("5550100");
+			List<OrderItem> items = new ArrayList<>();
+			BigDecimal total = BigDecimal.ZERO;
+			for (int i = 0; i < ITEMS_PER_ORDER; i++) {
+				Product product = product(o * ITEMS_PER_ORDER + i + 3);
+				OrderItem item = new OrderItem();
+				item.setId((long) items.size() + 1);
+				item.setOrder(order);
+				item.setProduct(product);
+				item.setQuantity(1);
+				item.setPrice(product.getPrice());
+				item.setTotalPrice(product.getPrice());
+				items.add(item);
+				total = total.add(product.getPrice());
+			}
+			order.setOrderItems(items);
+			order.setTotalAmount(total);
+			orders.add(order);
+		}
+		return orders;
+	}
+
+	private static Product product(int id) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName("Wireless Headphones " + id);
+		product.setDescription("Over-ear Bluetooth headphones with noise cancellation and 30h battery.");
+		product.setBrand("SoundWave");
+		product.setPrice(new BigDecimal("99.99"));
+		product.setCategory("Electronics");
+		product.setReleaseDate(new Date());
+		product.setProductAvailable(true);
+		product.setStockQuantity(id * 10);
+		product.setImageName("wireless_headphones.jpg");
+		product.setImageType("image/jpeg");
+		product.setImageKey("0".repeat(64));
+		product.setImageSize(20_000L);
+		return product;
+	}
+}
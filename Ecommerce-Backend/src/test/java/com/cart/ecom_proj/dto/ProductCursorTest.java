@@ -0,0 +1,37 @@
+package com.cart.ecom_proj.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCursorTest {
+
+	@Test
+	void roundTripsPriceCursor() {
+		ProductSummary last = new ProductSummary(42, "Mouse", "HyperClick", new BigDecimal("49.90"), "Accessories",
+				true, 5, null);
+
+		ProductCursor decoded = ProductCursor.decode(ProductCursor.after(last, "price", true).encode());
+
+		assertEquals("price", decoded.sortBy());
+		assertTrue(decoded.descending());
+		assertEquals(new BigDecimal("49.90"), decoded.lastValue());
+		assertEquals(42, decoded.lastId());
+	}
+
+	@Test
+	void keepsSeparatorsAndNullsInValues() {
+		ProductSummary named = new ProductSummary(7, "A|B|C", null, null, null, true, 0, null);
+
+		assertEquals("A|B|C", ProductCursor.decode(ProductCursor.after(named, "name", false).encode()).lastValue());
+		assertNull(ProductCursor.decode(ProductCursor.after(named, "brand", false).encode()).lastValue());
+	}
+
+	@Test
+	void rejectsGarbage() {
+		assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode("not a cursor!"));
+		assertThrows(IllegalArgumentException.class, () -> ProductCursor.decode("cHJpY2U"));
+	}
+}
@@ -0,0 +1,29 @@
+package com.cart.ecom_proj.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductFilterTest {
+
+	private static final ProductSummary MOUSE = new ProductSummary(1, "Gaming Mouse GX", "HyperClick",
+			new BigDecimal("49.99"), "Accessories", true, 200, null);
+
+	@Test
+	void matchesLikeTheDatabaseFilter() {
+		assertTrue(new ProductFilter(null, null, null, null, null, "ignored").matches(MOUSE));
+		assertTrue(new ProductFilter(List.of(" accessories ", "Audio"), List.of("HYPERCLICK"), null, null, true, null)
+				.matches(MOUSE));
+		assertTrue(new ProductFilter(null, null, new BigDecimal("49.99"), new BigDecimal("49.99"), null, null)
+				.matches(MOUSE));
+
+		assertFalse(new ProductFilter(List.of("Audio"), null, null, null, null, null).matches(MOUSE));
+		assertFalse(new ProductFilter(null, List.of("KeyForge"), null, null, null, null).matches(MOUSE));
+		assertFalse(new ProductFilter(null, null, new BigDecimal("50"), null, null, null).matches(MOUSE));
+		assertFalse(new ProductFilter(null, null, null, new BigDecimal("49.98"), null, null).matches(MOUSE));
+		assertFalse(new ProductFilter(null, null, null, null, false, null).matches(MOUSE));
+	}
+}
@@ -0,0 +1,91 @@
+package com.cart.ecom_proj.dto;
+
+import com.cart.ecom_proj.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSummaryTest {
+
+	private static final int PAGE_SIZE = 12;
+
+	private final ObjectMapper mapper = new ObjectMapper();
+
+	@Test
+	void listingPayloadIsOrdersOfMagnitudeSmallerThanLegacyEntityPayload() throws Exception {
+		byte[] image;
+		try (InputStream in = getClass().getClassLoader().getResourceAsStream("images/wireless_headphones.jpg")) {
+			assertNotNull(in);
+			image = in.readAllBytes();
+		}
+
+		List<Map<String, Object>> legacyPage = new ArrayList<>();
+		List<Product> entityPage = new ArrayList<>();
+		List<ProductSummary> summaryPage = new ArrayList<>();
+		for (int i = 1; i <= PAGE_SIZE; i++) {
+			Product product = product(i);
+			entityPage.add(product);
+			summaryPage.add(new ProductSummary(product.getId(), product.getName(), product.getBrand(),
+					product.getPrice(), product.getCategory(), product.isProductAvailable(),
+					product.getStockQuantity(), product.getImageKey()));
+
+			// Shape of a listing row before images moved out of the product table
+			@SuppressWarnings("unchecked")
+			Map<String, Object> legacy = mapper.convertValue(product, Map.class);
+			legacy.put("imageDate", image);
+			legacyPage.add(legacy);
+		}
+
+		int legacyBytes = mapper.writeValueAsBytes(legacyPage).length;
+		int entityBytes = mapper.writeValueAsBytes(entityPage).length;
+		int summaryBytes = mapper.writeValueAsBytes(summaryPage).length;
+		System.out.println("Listing page of " + PAGE_SIZE + ": legacy=" + legacyBytes + "B, entity="
+				+ entityBytes + "B, summary=" + summaryBytes + "B");
+
+		assertTrue(summaryBytes < entityBytes);
+		assertTrue(summaryBytes * 100 < legacyBytes);
+	}
+
+	@Test
+	void summaryJsonKeepsListingFieldsAndDropsDetailFields() throws Exception {
+		Product product = product(7);
+		ProductSummary summary = new ProductSummary(product.getId(), product.getName(), product.getBrand(),
+				product.getPrice(), product.getCategory(), product.isProductAvailable(), product.getStockQuantity(),
+				product.getImageKey());
+
+		String json = mapper.writeValueAsString(summary);
+
+		assertTrue(json.contains("\"productAvailable\":true"));
+		assertTrue(json.contains("\"stockQuantity\":70"));
+		assertTrue(json.contains("\"imageUrl\":\"/api/product/7/image?v=" + product.getImageKey() + "\""));
+		assertFalse(json.contains("description"));
+		assertFalse(json.contains("imageDate"));
+		assertFalse(json.contains("imageKey"));
+	}
+
+	private static Product product(int id) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName("Wireless Headphones " + id);
+		product.setDescription("Over-ear Bluetooth headphones with noise cancellation and 30h battery.");
+		product.setBrand("SoundWave");
+		product.setPrice(new BigDecimal("99.99"));
+		product.setCategory("Electronics");
+		product.setReleaseDate(new Date());
+		product.setProductAvailable(true);
+		product.setStockQuantity(id * 10);
+		product.setImageName("wireless_headphones.jpg");
+		product.setImageType("image/jpeg");
+		product.setImageKey("0".repeat(64));
+		product.setImageSize(20_000L);
+		return product;
+	}
+}
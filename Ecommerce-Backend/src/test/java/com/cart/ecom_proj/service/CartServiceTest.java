@@ -0,0 +1,62 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.CartOperation;
+import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CartServiceTest {
+
+	private static Product product(int id, String price) {
+		Product product = new Product();
+		product.setId(id);
+		product.setPrice(new BigDecimal(price));
+		return product;
+	}
+
+	@Test
+	void appliesOperationsInOrder() {
+		User user = new User();
+		Map<Integer, Product> products = Map.of(1, product(1, "10.00"), 2, product(2, "2.50"));
+		Map<Integer, Cart> lines = new LinkedHashMap<>();
+		CartService.applyOperations(user, lines, List.of(new CartOperation(CartOperation.ADD, 1, 1)), products);
+		Cart original = lines.get(1);
+
+		Set<Integer> touched = CartService.applyOperations(user, lines, List.of(
+				new CartOperation(CartOperation.ADD, 1, 2),
+				new CartOperation(CartOperation.SET, 2, 4),
+				new CartOperation(CartOperation.ADD, 2, 1),
+				new CartOperation(CartOperation.REMOVE, 3, null)), products);
+
+		assertEquals(Set.of(1, 2, 3), touched);
+		assertSame(original, lines.get(1));
+		assertEquals(3, lines.get(1).getQuantity());
+		assertEquals(5, lines.get(2).getQuantity());
+		assertEquals(new BigDecimal("42.50"), CartService.total(List.copyOf(lines.values())));
+	}
+
+	@Test
+	void removingAndAddingAgainStartsANewLine() {
+		User user = new User();
+		Map<Integer, Product> products = Map.of(1, product(1, "10.00"));
+		Map<Integer, Cart> lines = new LinkedHashMap<>();
+		CartService.applyOperations(user, lines, List.of(new CartOperation(CartOperation.ADD, 1, 3)), products);
+		Cart original = lines.get(1);
+
+		CartService.applyOperations(user, lines, List.of(
+				new CartOperation(CartOperation.SET, 1, 0),
+				new CartOperation(CartOperation.ADD, 1, 1)), products);
+
+		assertNotSame(original, lines.get(1));
+		assertEquals(1, lines.get(1).getQuantity());
+	}
+}
@@ -0,0 +1,203 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.Order;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.model.User;
+import com.cart.ecom_proj.repo.CartRepo;
+import com.cart.ecom_proj.repo.CartSummaryRepo;
+import com.cart.ecom_proj.repo.OrderItemRepo;
+import com.cart.ecom_proj.repo.OrderRepo;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.repo.UserRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:cart-store;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=5000",
+		"spring.datasource.driverClassName=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		// InnoDB default, so a transaction keeps the snapshot of its first read
+		"spring.datasource.hikari.transaction-isolation=TRANSACTION_REPEATABLE_READ",
+		"spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+		"spring.jpa.show-sql=false",
+		"app.cart.write-behind.enabled=true",
+		// Tests drive the flushes themselves
+		"app.cart.write-behind.flush-interval-ms=3600000"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartStore.class, CartService.class, CartSummaryService.class, UserService.class, OrderService.class,
+		SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartStoreTest {
+
+	@Autowired
+	private CartStore cartStore;
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private OrderService orderService;
+
+	@Autowired
+	private CartRepo cartRepo;
+
+	@Autowired
+	private CartSummaryRepo summaryRepo;
+
+	@Autowired
+	private OrderItemRepo orderItemRepo;
+
+	@Autowired
+	private OrderRepo orderRepo;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@MockBean
+	private ProductService productService;
+
+	@MockBean
+	private PasswordEncoder passwordEncoder;
+
+	private Long userId;
+
+	private Product lamp;
+
+	private Product chair;
+
+	@BeforeEach
+	void setUp() {
+		cartRepo.deleteAll();
+		summaryRepo.deleteAll();
+		orderItemRepo.deleteAll();
+		orderRepo.deleteAll();
+		productRepo.deleteAll();
+		userRepo.deleteAll();
+
+		User user = new User();
+		user.setEmail("store@example.com");
+		user.setPassword("secret");
+		user.setFirstName("Cart");
+		user.setLastName("Owner");
+		user.setUsername("store");
+		userId = userRepo.save(user).getId();
+		cartStore.evict(userId);
+
+		lamp = productRepo.save(product("Desk Lamp", "12.50"));
+		chair = productRepo.save(product("Office Chair", "80.00"));
+		when(productService.getProductById(anyInt())).thenAnswer(call -> productRepo.findById(call.getArgument(0)).orElse(null));
+	}
+
+	@Test
+	void changesReachTheTableOnlyWhenFlushed() {
+		cartService.addToCart(userId, lamp.getId(), 2);
+		cartService.addToCart(userId, chair.getId(), 1);
+		assertEquals(0, cartRepo.count());
+		assertEquals(3, cartStore.summary(userId).getItemCount());
+
+		cartStore.flush(userId);
+		assertEquals(2, cartRepo.count());
+		assertEquals(0, cartStore.dirtyCount());
+	}
+
+	@Test
+	void flushAllWritesInsertsUpdatesAndDeletesInOrder() {
+		cartService.addToCart(userId, lamp.getId(), 2);
+		cartService.addToCart(userId, chair.getId(), 1);
+		cartStore.flushAll();
+
+		cartService.updateCartQuantity(userId, lamp.getId(), 5);
+		cartService.removeFromCart(userId, chair.getId());
+		// Removed and added again before the flush: still one row for the product
+		cartService.addToCart(userId, chair.getId(), 3);
+		cartService.removeFromCart(userId, lamp.getId());
+		cartService.addToCart(userId, lamp.getId(), 1);
+		cartStore.flushAll();
+
+		Map<Integer, Integer> quantities = quantities();
+		assertEquals(Map.of(lamp.getId(), 1, chair.getId(), 3), quantities);
+		assertEquals(0, cartStore.dirtyCount());
+	}
+
+	@Test
+	void evictDropsTheMemoryCopySoTheNextReadReloads() {
+		cartService.addToCart(userId, lamp.getId(), 2);
+		cartStore.flush(userId);
+
+		cartRepo.deleteAll();
+		assertEquals(1, cartService.getUserCart(userId).size());
+
+		cartStore.evict(userId);
+		assertTrue(cartService.getUserCart(userId).isEmpty());
+	}
+
+	@Test
+	void checkoutSeesUnflushedLinesAndEmptiesTheCart() {
+		cartService.addToCart(userId, lamp.getId(), 2);
+		cartService.addToCart(userId, chair.getId(), 1);
+
+		Order order = orderService.createOrder(userId, Map.of("shippingAddress", "221B Baker Street",
+				"paymentMethod", "card", "phoneNumber", "5550100"));
+
+		assertEquals(0, new BigDecimal("105.00").compareTo(order.getTotalAmount()));
+		assertEquals(2, orderItemRepo.count());
+		assertEquals(0, cartRepo.count());
+		assertTrue(cartService.getUserCart(userId).isEmpty());
+		assertEquals(0, summaryRepo.findById(userId).orElseThrow().getLineCount());
+		assertEquals(48, productRepo.findById(lamp.getId()).orElseThrow().getStockQuantity());
+	}
+
+	@Test
+	void failedCheckoutKeepsTheCart() {
+		cartService.addToCart(userId, lamp.getId(), 2);
+		Product stock = productRepo.findById(lamp.getId()).orElseThrow();
+		stock.setStockQuantity(1);
+		productRepo.save(stock);
+
+		assertThrows(RuntimeException.class, () -> orderService.createOrder(userId, Map.of()));
+
+		// The lines were flushed for the order and stay after its rollback
+		assertEquals(1, cartRepo.count());
+		assertEquals(2, cartService.getUserCart(userId).get(0).getQuantity());
+	}
+
+	private Map<Integer, Integer> quantities() {
+		List<Cart> rows = cartRepo.findAll();
+		return rows.stream().collect(Collectors.toMap(row -> row.getProduct().getId(), Cart::getQuantity));
+	}
+
+	private static Product product(String name, String price) {
+		Product product = new Product();
+		product.setName(name);
+		product.setBrand("Acme");
+		product.setCategory("Home");
+		product.setPrice(new BigDecimal(price));
+		product.setStockQuantity(50);
+		product.setProductAvailable(true);
+		return product;
+	}
+}
@@ -0,0 +1,186 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.model.Cart;
+import com.cart.ecom_proj.model.CartSummary;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.model.User;
+import com.cart.ecom_proj.repo.CartRepo;
+import com.cart.ecom_proj.repo.CartSummaryRepo;
+import com.cart.ecom_proj.repo.ProductRepo;
+import com.cart.ecom_proj.repo.UserRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@DataJpaTest(properties = {
+		"spring.datasource.url=jdbc:h2:mem:cart-summary;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=5000",
+		"spring.datasource.driverClassName=org.h2.Driver",
+		"spring.datasource.username=sa",
+		"spring.datasource.password=",
+		"spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+		"spring.jpa.show-sql=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({CartService.class, CartSummaryService.class, UserService.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class CartSummaryServiceTest {
+
+	@Autowired
+	private CartService cartService;
+
+	@Autowired
+	private CartSummaryService cartSummaryService;
+
+	@Autowired
+	private CartSummaryRepo summaryRepo;
+
+	@Autowired
+	private CartRepo cartRepo;
+
+	@Autowired
+	private UserRepo userRepo;
+
+	@Autowired
+	private ProductRepo productRepo;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@MockBean
+	private ProductService productService;
+
+	@MockBean
+	private PasswordEncoder passwordEncoder;
+
+	private Long userId;
+
+	private Product product;
+
+	@BeforeEach
+	void setUp() {
+		cartRepo.deleteAll();
+		summaryRepo.deleteAll();
+		productRepo.deleteAll();
+		userRepo.deleteAll();
+
+		User user = new User();
+		user.setEmail("summary@example.com");
+		user.setPassword("secret");
+		user.setFirstName("Cart");
+		user.setLastName("Owner");
+		user.setUsername("summary");
+		userId = userRepo.save(user).getId();
+
+		product = new Product();
+		product.setName("Desk Lamp");
+		product.setBrand("Lumen");
+		product.setCategory("Home");
+		product.setPrice(new BigDecimal("12.50"));
+		product.setStockQuantity(100);
+		product.setProductAvailable(true);
+		product = productRepo.save(product);
+		when(productService.getProductById(anyInt())).thenAnswer(call -> productRepo.findById(call.getArgument(0)).orElse(null));
+	}
+
+	@Test
+	void ensureBuildsTheSummaryFromExistingLines() {
+		Cart line = new Cart();
+		line.setUser(userRepo.findById(userId).orElseThrow());
+		line.setProduct(product);
+		line.setQuantity(3);
+		line.setPrice(product.getPrice());
+		cartRepo.save(line);
+
+		cartSummaryService.ensure(userId);
+		cartSummaryService.ensure(userId);
+
+		CartSummary summary = summaryRepo.findById(userId).orElseThrow();
+		assertEquals(0, new BigDecimal("37.50").compareTo(summary.getTotal()));
+		assertEquals(3, summary.getItemCount());
+		assertEquals(1, summary.getLineCount());
+		assertEquals(1, summaryRepo.count());
+	}
+
+	@Test
+	void lockRequiresAnEnsuredRow() {
+		assertThrows(RuntimeException.class,
+				() -> transactionTemplate.execute(status -> cartSummaryService.lock(userId)));
+
+		cartSummaryService.ensure(userId);
+		CartSummary locked = transactionTemplate.execute(status -> cartSummaryService.lock(userId));
+		assertEquals(userId, locked.getUserId());
+		assertEquals(0, locked.getLineCount());
+	}
+
+	@Test
+	void firstAddCreatesTheSummaryAndLaterAddsApplyDeltas() {
+		assertFalse(summaryRepo.existsById(userId));
+
+		cartService.addToCart(userId, product.getId(), 2);
+		cartService.addToCart(userId, product.getId(), 1);
+		cartService.updateCartQuantity(userId, product.getId(), 4);
+
+		CartSummary summary = cartSummaryService.get(userId);
+		assertEquals(0, new BigDecimal("50.00").compareTo(summary.getTotal()));
+		assertEquals(4, summary.getItemCount());
+		assertEquals(1, summary.getLineCount());
+		assertTrue(summary.matches(cartRepo.summarize(userId)));
+
+		cartService.removeFromCart(userId, product.getId());
+		assertEquals(0, cartSummaryService.get(userId).getLineCount());
+	}
+
+	@Test
+	void concurrentFirstAddsDoNotBlockOnEachOther() throws Exception {
+		ExecutorService pool = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<Cart>> adds = pool.invokeAll(Collections.nCopies(8,
+					() -> cartService.addToCart(userId, product.getId(), 1)), 20, TimeUnit.SECONDS);
+			for (Future<Cart> add : adds) {
+				add.get();
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+
+		CartSummary summary = cartSummaryService.get(userId);
+		assertEquals(8, summary.getItemCount());
+		assertTrue(summary.matches(cartRepo.summarize(userId)));
+	}
+
+	@Test
+	void invalidateRecomputesTheRowInPlace() {
+		cartService.addToCart(userId, product.getId(), 2);
+
+		// Lines removed without adjusting the summary, as checkout does
+		transactionTemplate.executeWithoutResult(status -> {
+			cartRepo.deleteByUser(userRepo.findById(userId).orElseThrow());
+			cartSummaryService.invalidate(userId);
+		});
+
+		CartSummary summary = summaryRepo.findById(userId).orElseThrow();
+		assertEquals(0, BigDecimal.ZERO.compareTo(summary.getTotal()));
+		assertEquals(0, summary.getItemCount());
+		assertEquals(0, summary.getLineCount());
+	}
+}
@@ -0,0 +1,76 @@
+package com.cart.ecom_proj.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotCacheTest {
+
+	private CatalogSnapshotCache newCache(int maxEntries) {
+		CatalogSnapshotCache cache = new CatalogSnapshotCache(maxEntries);
+		ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+		return cache;
+	}
+
+	@Test
+	void buildsOncePerVersion() {
+		CatalogSnapshotCache cache = newCache(16);
+		AtomicInteger builds = new AtomicInteger();
+
+		cache.get("categories", "v1", () -> List.of("Books", "Laptops" + builds.incrementAndGet()));
+		cache.get("categories", "v1", () -> List.of("Books", "Laptops" + builds.incrementAndGet()));
+		assertEquals(1, builds.get());
+
+		CatalogSnapshotCache.Snapshot rebuilt = cache.get("categories", "v2",
+				() -> List.of("Books", "Laptops" + builds.incrementAndGet()));
+		assertEquals(2, builds.get());
+		assertEquals("[\"Books\",\"Laptops2\"]", new String(rebuilt.json()));
+	}
+
+	@Test
+	void evictsTheLeastRecentlyServedSnapshotWhenFull() {
+		CatalogSnapshotCache cache = newCache(2);
+		AtomicInteger builds = new AtomicInteger();
+
+		cache.get("products:0", "v1", () -> List.of(builds.incrementAndGet()));
+		cache.get("products:1", "v1", () -> List.of(builds.incrementAndGet()));
+		cache.get("products:0", "v1", () -> List.of(builds.incrementAndGet()));
+		cache.get("products:2", "v1", () -> List.of(builds.incrementAndGet()));
+		assertEquals(3, builds.get());
+
+		cache.get("products:0", "v1", () -> List.of(builds.incrementAndGet()));
+		cache.get("products:2", "v1", () -> List.of(builds.incrementAndGet()));
+		assertEquals(3, builds.get());
+
+		cache.get("products:1", "v1", () -> List.of(builds.incrementAndGet()));
+		assertEquals(4, builds.get());
+	}
+
+	@Test
+	void gzipBytesInflateToTheJson()throws IOException {
+		CatalogSnapshotCache.Snapshot snapshot = newCache(16).get("categories", "v1",
+				() -> List.of("Books", "Laptops", "Books", "Laptops"));
+
+		byte[] inflated = new GZIPInputStream(new ByteArrayInputStream(snapshot.gzip())).readAllBytes();
+		assertArrayEquals(snapshot.json(), inflated);
+	}
+
+	@Test
+	void parsesAcceptEncoding() {
+		assertTrue(CatalogSnapshotCache.acceptsGzip("gzip, deflate, br"));
+		assertTrue(CatalogSnapshotCache.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(CatalogSnapshotCache.acceptsGzip("*"));
+		assertFalse(CatalogSnapshotCache.acceptsGzip(null));
+		assertFalse(CatalogSnapshotCache.acceptsGzip("identity"));
+		assertFalse(CatalogSnapshotCache.acceptsGzip("gzip;q=0"));
+		assertFalse(CatalogSnapshotCache.acceptsGzip("gzip;q=0, *"));
+	}
+}
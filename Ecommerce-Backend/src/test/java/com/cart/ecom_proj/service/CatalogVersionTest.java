@@ -0,0 +1,87 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.model.CatalogRevision;
+import com.cart.ecom_proj.repo.CatalogRevisionRepo;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CatalogVersionTest {
+
+	// The catalog_revision row every instance reads and bumps
+	private final AtomicReference<CatalogRevision> row = new AtomicReference<>();
+	private final CatalogRevisionRepo repo = mock(CatalogRevisionRepo.class);
+	private final EntityManager entityManager = mock(EntityManager.class);
+
+	CatalogVersionTest() {
+		when(repo.findById(CatalogRevision.ID)).thenAnswer(invocation -> Optional.ofNullable(row.get())
+				.map(r -> new CatalogRevision(r.getId(), r.getVersion(), r.getUpdatedAt())));
+		when(repo.increment(anyInt(), any())).thenAnswer(invocation -> {
+			CatalogRevision current = row.get();
+			if (current == null) {
+				return 0;
+			}
+			row.set(new CatalogRevision(current.getId(), current.getVersion() + 1, invocation.getArgument(1)));
+			return 1;
+		});
+		doAnswer(invocation -> {
+			if (!row.compareAndSet(null, invocation.getArgument(0))) {
+				throw new DataIntegrityViolationException("duplicate");
+			}
+			return null;
+		}).when(entityManager).persist(any());
+	}
+
+	private CatalogVersion instance() {
+		CatalogVersion version = new CatalogVersion(mock(PlatformTransactionManager.class));
+		ReflectionTestUtils.setField(version, "revisionRepo", repo);
+		ReflectionTestUtils.setField(version, "entityManager", entityManager);
+		version.refresh();
+		return version;
+	}
+
+	@Test
+	void instancesShareValidatorsAndSeeOtherInstancesWrites() {
+		CatalogVersion first = instance();
+		CatalogVersion second = instance();
+		assertEquals(first.current(), second.current());
+
+		first.bump();
+		assertNotEquals(first.current().etag(), second.current().etag());
+
+		second.refresh();
+		assertEquals(first.current().etag(), second.current().etag());
+		assertEquals(first.current().lastModified(), second.current().lastModified());
+	}
+
+	@Test
+	void neverMovesBackToAnOlderVersion() {
+		CatalogVersion version = instance();
+		CatalogRevision before = row.get();
+		version.bump();
+		String bumped = version.current().etag();
+
+		row.set(before);
+		version.refresh();
+		assertEquals(bumped, version.current().etag());
+	}
+
+	@Test
+	void startsFromTheClockOnAFreshDatabase() {
+		long start = System.currentTimeMillis();
+		instance();
+		assertTrue(row.get().getVersion() >= start);
+	}
+}
@@ -0,0 +1,51 @@
+package com.cart.ecom_proj.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvRecordReaderTest {
+
+	@Test
+	void readsQuotedFieldsEscapedQuotesAndEmbeddedNewlines() throws IOException {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader(
+				"name,description\r\n\"Desk, oak\",\"Says \"\"hi\"\"\nover two lines\"\r\n\nLamp,\n"));
+
+		assertEquals(List.of("name", "description"), reader.next());
+		assertEquals(List.of("Desk, oak", "Says \"hi\"\nover two lines"), reader.next());
+		assertEquals(List.of("Lamp", ""), reader.next());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void readsLastRecordWithoutTrailingNewline() throws IOException {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader("a,b\n1,2"));
+
+		assertEquals(List.of("a", "b"), reader.next());
+		assertEquals(List.of("1", "2"), reader.next());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void readsBackWhatTheExportWrites() throws IOException {
+		String[] values = {"1", "Desk, \"oak\"", null, "two\nlines", ""};
+		StringWriter out = new StringWriter();
+		ProductExportService.writeCsvRecord(out, values);
+
+		CsvRecordReader reader = new CsvRecordReader(new StringReader(out.toString()));
+		assertEquals(List.of("1", "Desk, \"oak\"", "", "two\nlines", ""), reader.next());
+		assertNull(reader.next());
+	}
+
+	@Test
+	void rejectsUnterminatedQuotes() {
+		CsvRecordReader reader = new CsvRecordReader(new StringReader("\"open,field\n"));
+
+		assertThrows(IOException.class, reader::next);
+	}
+}
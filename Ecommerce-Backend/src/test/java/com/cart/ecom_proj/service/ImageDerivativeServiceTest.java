@@ -0,0 +1,71 @@
+package com.cart.ecom_proj.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageDerivativeServiceTest {
+
+	@TempDir
+	Path storeDir;
+
+	private final ImageStore imageStore = new ImageStore();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(imageStore, "root", storeDir);
+	}
+
+	private ImageDerivativeService newService(long maxPixels) {
+		ImageDerivativeService service = new ImageDerivativeService(1, 10, maxPixels);
+		ReflectionTestUtils.setField(service, "imageStore", imageStore);
+		return service;
+	}
+
+	@Test
+	void resizesToEachVariantWidthKeepingTheAspectRatio() throws IOException {
+		String key = imageStore.store(png(1000, 500)).key();
+		ImageDerivativeService service = newService(1_000_000);
+
+		service.generate(key);
+		service.shutdown();
+
+		BufferedImage thumb = ImageIO.read(service.locateVariant(key, ImageDerivativeService.ImageVariant.THUMB).toFile());
+		BufferedImage card = ImageIO.read(service.locateVariant(key, ImageDerivativeService.ImageVariant.CARD).toFile());
+		assertEquals(160, thumb.getWidth());
+		assertEquals(80, thumb.getHeight());
+		assertEquals(480, card.getWidth());
+		assertEquals(240, card.getHeight());
+	}
+
+	@Test
+	void skipsImagesOverThePixelCapAndUnreadableFiles() throws IOException {
+		String large = imageStore.store(png(1000, 500)).key();
+		String garbage = imageStore.store("not an image".getBytes()).key();
+		ImageDerivativeService service = newService(499_999);
+
+		service.generate(large);
+		service.generate(garbage);
+		service.shutdown();
+
+		for (String key : new String[] {large, garbage}) {
+			assertNull(imageStore.locateVariant(key, ImageDerivativeService.ImageVariant.THUMB.key()));
+			assertNull(imageStore.locateVariant(key, ImageDerivativeService.ImageVariant.CARD.key()));
+		}
+	}
+
+	private static byte[] png(int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+		return out.toByteArray();
+	}
+}
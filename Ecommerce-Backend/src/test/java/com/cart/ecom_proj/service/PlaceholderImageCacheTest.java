@@ -0,0 +1,37 @@
+package com.cart.ecom_proj.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Color;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlaceholderImageCacheTest {
+
+	@Test
+	void rendersEachPlaceholderOnce() {
+		PlaceholderImageCache cache = new PlaceholderImageCache(16);
+		AtomicInteger renders = new AtomicInteger();
+
+		PlaceholderImageCache.Placeholder first = cache.get("card", "Lamp", 200, 200, Color.GRAY,
+				() -> new byte[] {(byte) renders.incrementAndGet()});
+		PlaceholderImageCache.Placeholder second = cache.get("card", "Lamp", 200, 200, Color.GRAY,
+				() -> new byte[] {(byte) renders.incrementAndGet()});
+
+		assertSame(first, second);
+		assertEquals(1, renders.get());
+	}
+
+	@Test
+	void returnsTheRenderedPlaceholderWhenTheCacheKeepsNothing() {
+		PlaceholderImageCache cache = new PlaceholderImageCache(0);
+
+		PlaceholderImageCache.Placeholder placeholder = cache.get("card", "Lamp", 200, 200, null,
+				() -> new byte[] {1, 2, 3});
+
+		assertNotNull(placeholder);
+		assertArrayEquals(new byte[] {1, 2, 3}, placeholder.png());
+		assertTrue(placeholder.etag().startsWith("\"ph-"));
+	}
+}
@@ -0,0 +1,93 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCacheTest {
+
+	private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	private final AtomicLong now = new AtomicLong();
+	private final AtomicInteger loads = new AtomicInteger();
+	private final IntFunction<Product> loader = id -> {
+		loads.incrementAndGet();
+		return id < 0 ? null : product(id);
+	};
+
+	private ProductCache cache;
+
+	@BeforeEach
+	void setUp() {
+		long room = 3L * ProductCache.estimateWeight(product(1));
+		cache = new ProductCache(room, 1000, registry, now::get);
+		cache.registerGauges();
+	}
+
+	@Test
+	void servesRepeatReadsFromMemoryAndCountsHits() {
+		Product first = cache.get(1, loader);
+		Product second = cache.get(1, loader);
+
+		assertSame(first, second);
+		assertEquals(1, loads.get());
+		assertEquals(1, registry.get("cache.gets").tag("result", "hit").counter().count());
+		assertEquals(1, registry.get("cache.gets").tag("result", "miss").counter().count());
+	}
+
+	@Test
+	void invalidatesOnProductChangesAndExpiresAfterTtl() {
+		cache.get(1, loader);
+		cache.onProductChanged(ProductChangedEvent.updated(product(1)));
+		cache.get(1, loader);
+		assertEquals(2, loads.get());
+
+		now.addAndGet(1000);
+		cache.get(1, loader);
+		assertEquals(3, loads.get());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedWhenOverBudget() {
+		cache.get(1, loader);
+		cache.get(2, loader);
+		cache.get(3, loader);
+		cache.get(1, loader);
+		cache.get(4, loader);
+
+		assertEquals(3, cache.size());
+		assertTrue(cache.weight() <= 3L * ProductCache.estimateWeight(product(1)));
+		assertEquals(1, registry.get("cache.evictions").counter().count());
+		assertEquals(3, registry.get("cache.size").gauge().value());
+		assertEquals(cache.weight(), registry.get("cache.weight").gauge().value());
+		cache.get(1, loader);
+		assertEquals(4, loads.get());
+	}
+
+	@Test
+	void doesNotCacheMissingProductsOrLoadsThatRacedAnInvalidation() {
+		assertNull(cache.get(-1, loader));
+		assertEquals(0, cache.size());
+
+		cache.get(5, id -> {
+			cache.invalidate(id);
+			return product(id);
+		});
+		assertEquals(0, cache.size());
+	}
+
+	private static Product product(int id) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName("Product " + id);
+		product.setDescription("Description");
+		return product;
+	}
+}
@@ -0,0 +1,180 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.CategoryCount;
+import com.cart.ecom_proj.dto.CategorySnapshot;
+import com.cart.ecom_proj.dto.FacetedProducts;
+import com.cart.ecom_proj.dto.FacetedProducts.FacetCount;
+import com.cart.ecom_proj.dto.ProductFilter;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductFacetIndexTest {
+
+	private ProductFacetIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductFacetIndex();
+		add(1, "Laptop", "Dell", "899.99", true);
+		add(2, "Laptop", "Apple", "1299.00", true);
+		add(3, "Headphone", "Sony", "79.50", true);
+		add(4, "headphone", "Sony", "149.00", false);
+		add(5, "Mobile", "Apple", "999.00", true);
+	}
+
+	@Test
+	void countsEachDimensionAgainstTheOtherFilters() {
+		FacetedProducts result = index.filter(filter(List.of("Laptop"), null, null, null, null), null, null, false, 0, 10);
+
+		assertEquals(List.of(1, 2), ids(result));
+		// Category counts ignore the category selection itself
+		assertEquals(List.of(new FacetCount("Headphone", 2), new FacetCount("Laptop", 2), new FacetCount("Mobile", 1)),
+				result.categories());
+		assertEquals(List.of(new FacetCount("Apple", 1), new FacetCount("Dell", 1)), result.brands());
+		assertEquals(2, result.availableCount());
+	}
+
+	@Test
+	void combinesPriceRangeAvailabilityAndBrand() {
+		FacetedProducts result = index.filter(filter(null, List.of("sony", "Apple"), new BigDecimal("50"),
+				new BigDecimal("1000"), true), null, "price", true, 0, 10);
+
+		assertEquals(List.of(5, 3), ids(result));
+		// Price counts apply the brand and availability filters but not the price range
+		assertEquals(List.of(0, 0, 1, 0, 0, 1, 1), result.priceRanges().stream().map(range -> range.count()).toList());
+	}
+
+	@Test
+	void keepsKeywordRelevanceOrderAndPaginates() {
+		FacetedProducts result = index.filter(filter(null, null, null, null, null), List.of(5, 2, 99, 1), null, false,
+				1, 2);
+
+		assertEquals(List.of(1), ids(result));
+		assertEquals(3, result.totalItems());
+		assertEquals(2, result.totalPages());
+	}
+
+	@Test
+	void dropsRemovedProductsAndEmptyFacets() {
+		index.onProductChanged(ProductChangedEvent.deleted(5));
+		index.onProductChanged(ProductChangedEvent.updated(product(2, "Tablet", "Apple", "499.00", true)));
+
+		assertEquals(List.of("Headphone", "Laptop", "Tablet"), index.categorySnapshot().names());
+		FacetedProducts result = index.filter(filter(List.of("Mobile"), null, null, null, null), null, null, false, 0, 10);
+		assertTrue(result.products().isEmpty());
+		assertTrue(result.categories().stream().noneMatch(count -> count.value().equals("Mobile")));
+	}
+
+	@Test
+	void keepsCategorySnapshotUntilCategoriesChange() {
+		CategorySnapshot snapshot = index.categorySnapshot();
+		assertEquals(List.of(new CategoryCount("Headphone", 2), new CategoryCount("Laptop", 2),
+				new CategoryCount("Mobile", 1)), snapshot.categories());
+
+		index.onProductChanged(ProductChangedEvent.updated(product(1, "Laptop", "Dell", "799.99", true)));
+		assertSame(snapshot, index.categorySnapshot());
+
+		index.onProductChanged(ProductChangedEvent.updated(product(1, "Mobile", "Dell", "799.99", true)));
+		CategorySnapshot changed = index.categorySnapshot();
+		assertEquals(List.of(new CategoryCount("Headphone", 2), new CategoryCount("Laptop", 1),
+				new CategoryCount("Mobile", 2)), changed.categories());
+		assertNotEquals(snapshot.etag(), changed.etag());
+		assertEquals(snapshot.namesEtag(), changed.namesEtag());
+	}
+
+	@Test
+	void availabilityMatchesTheDatabaseFilter() {
+		// Flagged available with nothing in stock, and the other way round
+		Product soldOut = product(6, "Mobile", "Nokia", "49.00", true);
+		soldOut.setStockQuantity(0);
+		Product unlisted = product(7, "Mobile", "Nokia", "59.00", false);
+		index.onProductChanged(ProductChangedEvent.created(soldOut));
+		index.onProductChanged(ProductChangedEvent.created(unlisted));
+		List<ProductSummary> all = index.filter(filter(null, null, null, null, null), null, null, false, 0, 10)
+				.products();
+
+		for (Boolean available : new Boolean[] {true, false, null}) {
+			ProductFilter filter = filter(null, null, null, null, available);
+			List<Integer> expected = all.stream().filter(filter::matches).map(ProductSummary::id).toList();
+			assertEquals(expected, ids(index.filter(filter, null, null, false, 0, 10)));
+		}
+		assertTrue(ids(index.filter(filter(null, null, null, null, true), null, null, false, 0, 10)).contains(6));
+	}
+
+	@Test
+	void labelsEachCategoryWithTheSpellingOfItsLowestIdLikeTheDatabase() {
+		// Same rule as ProductRepo.countByCategory, whatever order the events arrive in
+		add(9, "LAPTOP", "Dell", "699.00", true);
+		add(0, " headphone ", "Sony", "29.00", true);
+		assertEquals(List.of("headphone", "Laptop", "Mobile"), index.categorySnapshot().names());
+
+		index.onProductChanged(ProductChangedEvent.updated(product(1, " laptop ", "Dell", "899.99", true)));
+		assertEquals(List.of("headphone", "laptop", "Mobile"), index.categorySnapshot().names());
+
+		index.onProductChanged(ProductChangedEvent.deleted(0));
+		index.onProductChanged(ProductChangedEvent.deleted(1));
+		assertEquals(List.of(new CategoryCount("Headphone", 2), new CategoryCount("Laptop", 2),
+				new CategoryCount("Mobile", 1)), index.categorySnapshot().categories());
+	}
+
+	@Test
+	void rebuildKeepsServingTheOldIndexAndChangesMadeDuringTheBuild() {
+		ProductRepo repo = mock(ProductRepo.class);
+		ReflectionTestUtils.setField(index, "productRepo", repo);
+		when(repo.findSummariesAfter(eq(8), any())).thenReturn(List.of());
+		when(repo.findSummariesAfter(eq(0), any())).thenAnswer(invocation -> {
+			// Committed while the build reads the table: product 7 is renamed after its row was read
+			index.onProductChanged(ProductChangedEvent.updated(product(7, "Tablet", "Apple", "399.00", true)));
+			// Reads still see the old index, with the change applied
+			assertEquals(6, index.filter(filter(null, null, null, null, null), null, null, false, 0, 10)
+					.totalItems());
+			return List.of(ProductSummary.of(product(7, "Laptop", "Apple", "399.00", true)),
+					ProductSummary.of(product(8, "Mobile", "Nokia", "49.00", true)));
+		});
+
+		index.rebuild();
+
+		assertTrue(index.isReady());
+		assertEquals(List.of(7, 8), ids(index.filter(filter(null, null, null, null, null), null, null, false, 0, 10)));
+		assertEquals(List.of("Mobile", "Tablet"), index.categorySnapshot().names());
+	}
+
+	private void add(int id, String category, String brand, String price, boolean available) {
+		index.onProductChanged(ProductChangedEvent.created(product(id, category, brand, price, available)));
+	}
+
+	private static ProductFilter filter(List<String> categories, List<String> brands, BigDecimal min, BigDecimal max,
+			Boolean available) {
+		return new ProductFilter(categories, brands, min, max, available, null);
+	}
+
+	private static List<Integer> ids(FacetedProducts result) {
+		return result.products().stream().map(ProductSummary::id).toList();
+	}
+
+	private static Product product(int id, String category, String brand, String price, boolean available) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(brand + " " + category + " " + id);
+		product.setBrand(brand);
+		product.setCategory(category);
+		product.setPrice(new BigDecimal(price));
+		product.setProductAvailable(available);
+		product.setStockQuantity(3);
+		return product;
+	}
+}
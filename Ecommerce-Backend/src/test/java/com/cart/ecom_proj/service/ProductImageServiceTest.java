@@ -0,0 +1,73 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.repo.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductImageServiceTest {
+
+	@TempDir
+	Path storeDir;
+
+	private final ImageStore imageStore = new ImageStore();
+	private final ProductRepo repo = mock(ProductRepo.class);
+	private final ProductImageService service = new ProductImageService(60_000, 60_000);
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(imageStore, "root", storeDir);
+		ReflectionTestUtils.setField(service, "imageStore", imageStore);
+		ReflectionTestUtils.setField(service, "productRepo", repo);
+	}
+
+	@Test
+	void deletesReleasedImagesOnlyOnceUnreferencedAndPastTheGracePeriod() throws IOException {
+		String referenced = storeAged("still used");
+		String orphan = storeAged("orphan");
+		when(repo.existsByImageKey(referenced)).thenReturn(true);
+
+		service.releaseImage(referenced);
+		service.releaseImage(orphan);
+		service.sweepReleased();
+
+		assertNotNull(imageStore.locate(referenced));
+		assertNull(imageStore.locate(orphan));
+	}
+
+	@Test
+	void keepsAnImageStoredAgainWhileItWasReleased() throws IOException {
+		String key = storeAged("shared bytes");
+		service.releaseImage(key);
+		// A concurrent upload of the same bytes, whose product row is not committed yet
+		imageStore.store("shared bytes".getBytes());
+
+		service.sweepReleased();
+		assertNotNull(imageStore.locate(key));
+
+		// Still queued: deleted once the upload's grace period has passed without a reference
+		age(key);
+		service.sweepReleased();
+		assertNull(imageStore.locate(key));
+	}
+
+	private String storeAged(String content) throws IOException {
+		String key = imageStore.store(content.getBytes()).key();
+		age(key);
+		return key;
+	}
+
+	private void age(String key) throws IOException {
+		Files.setLastModifiedTime(imageStore.locate(key), FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+	}
+}
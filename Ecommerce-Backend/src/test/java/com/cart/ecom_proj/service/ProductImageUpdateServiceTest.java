@@ -0,0 +1,148 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ImageUpdateJobStatus;
+import com.cart.ecom_proj.dto.ProductImageRef;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ProductImageUpdateServiceTest {
+
+	private final ProductRepo repo = mock(ProductRepo.class);
+	private final ProductImageService imageService = mock(ProductImageService.class);
+	private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+
+	private ProductImageUpdateService service;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		service = new ProductImageUpdateService(2, 2);
+		ReflectionTestUtils.setField(service, "repo", repo);
+		ReflectionTestUtils.setField(service, "imageService", imageService);
+		ReflectionTestUtils.setField(service, "placeholderCache", new PlaceholderImageCache(16));
+		ReflectionTestUtils.setField(service, "transactionTemplate", transactionTemplate);
+		ReflectionTestUtils.setField(service, "eventPublisher", mock(ApplicationEventPublisher.class));
+
+		when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+				invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+		when(repo.findAllById(any())).thenAnswer(invocation -> {
+			List<Product> products = new ArrayList<>();
+			for (Object id : invocation.getArgument(0, Collection.class)) {
+				Product product = new Product();
+				product.setId((Integer) id);
+				products.add(product);
+			}
+			return products;
+		});
+		when(repo.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+		when(repo.count()).thenReturn(3L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	@Test
+	void updatesEveryProductChunkByChunk() throws Exception {
+		when(repo.findImageRefsAfter(eq(0), any())).thenReturn(List.of(ref(1, "Wireless Headphones"), ref(2, "Lamp")));
+		when(repo.findImageRefsAfter(eq(2), any())).thenReturn(List.of(ref(3, "Desk")));
+		when(repo.findImageRefsAfter(eq(3), any())).thenReturn(List.of());
+
+		ImageUpdateJobStatus started = service.start();
+		ImageUpdateJobStatus finished = awaitFinished(started.jobId());
+
+		assertEquals(ImageUpdateJobStatus.COMPLETED, finished.state());
+		assertEquals(3, finished.total());
+		assertEquals(3, finished.processed());
+		assertEquals(3, finished.updated());
+		assertEquals(0, finished.failed());
+		assertNotNull(finished.finishedAt());
+		verify(imageService).attachImage(any(), eq("wireless_headphones.jpg"), eq("image/jpeg"), any());
+		verify(imageService, times(2)).attachImage(any(), anyString(), eq("image/png"), any());
+	}
+
+	@Test
+	void reportsProgressAndReturnsTheRunningJobWhileItRuns() throws Exception {
+		CountDownLatch secondChunk = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		when(repo.findImageRefsAfter(eq(0), any())).thenReturn(List.of(ref(1, "Lamp"), ref(2, "Desk")));
+		when(repo.findImageRefsAfter(eq(2), any())).thenAnswer(invocation -> {
+			secondChunk.countDown();
+			assertTrue(release.await(5, TimeUnit.SECONDS));
+			return List.of();
+		});
+
+		ImageUpdateJobStatus started = service.start();
+		assertTrue(secondChunk.await(5, TimeUnit.SECONDS));
+
+		ImageUpdateJobStatus progress = service.status(started.jobId());
+		assertEquals(ImageUpdateJobStatus.RUNNING, progress.state());
+		assertEquals(2, progress.processed());
+		assertEquals(2, progress.updated());
+		assertNull(progress.finishedAt());
+		assertEquals(started.jobId(), service.start().jobId());
+
+		release.countDown();
+		assertEquals(ImageUpdateJobStatus.COMPLETED, awaitFinished(started.jobId()).state());
+		verify(repo, times(1)).count();
+	}
+
+	@Test
+	void failedJobsDoNotBlockTheNextStart() throws Exception {
+		when(repo.count()).thenThrow(new DataAccessResourceFailureException("database down")).thenReturn(1L);
+		when(repo.findImageRefsAfter(eq(1), any())).thenReturn(List.of());
+		when(repo.findImageRefsAfter(eq(0), any()))
+				.thenThrow(new DataAccessResourceFailureException("database down"))
+				.thenReturn(List.of(ref(1, "Lamp")));
+
+		assertThrows(DataAccessResourceFailureException.class, service::start);
+
+		ImageUpdateJobStatus failed = awaitFinished(service.start().jobId());
+		assertEquals(ImageUpdateJobStatus.FAILED, failed.state());
+
+		ImageUpdateJobStatus retried = service.start();
+		assertNotEquals(failed.jobId(), retried.jobId());
+		ImageUpdateJobStatus completed = awaitFinished(retried.jobId());
+		assertEquals(ImageUpdateJobStatus.COMPLETED, completed.state());
+		assertEquals(1, completed.updated());
+	}
+
+	private ImageUpdateJobStatus awaitFinished(String jobId) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		ImageUpdateJobStatus status = service.status(jobId);
+		while (status.finishedAt() == null) {
+			assertTrue(System.currentTimeMillis() < deadline, "job did not finish");
+			Thread.sleep(10);
+			status = service.status(jobId);
+		}
+		return status;
+	}
+
+	private static ProductImageRef ref(int id, String name) {
+		return new ProductImageRef(id, name, null, null);
+	}
+}
@@ -0,0 +1,100 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductSearchIndexTest {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex();
+		index.onProductChanged(ProductChangedEvent.created(product(1, "Wireless Headphones", "SoundWave",
+				"Audio", "Over-ear Bluetooth headphones with noise cancellation")));
+		index.onProductChanged(ProductChangedEvent.created(product(2, "Bluetooth Speaker Mini", "BoomBox",
+				"Audio", "Portable waterproof speaker")));
+		index.onProductChanged(ProductChangedEvent.created(product(3, "Gaming Mouse GX", "HyperClick",
+				"Accessories", "Ergonomic RGB mouse")));
+	}
+
+	@Test
+	void ranksNameMatchesAboveDescriptionMatches() {
+		List<Integer> ids = ids(index.search("bluetooth", 0, 10));
+
+		assertEquals(List.of(2, 1), ids);
+	}
+
+	@Test
+	void matchesLastTermAsPrefix() {
+		assertEquals(List.of(3), ids(index.search("gaming mo", 0, 10)));
+		assertEquals(List.of(1), ids(index.search("headph", 0, 10)));
+	}
+
+	@Test
+	void appliesUpdatesAndDeletes() {
+		index.onProductChanged(ProductChangedEvent.updated(product(3, "Gaming Keyboard", "HyperClick",
+				"Accessories", "Mechanical keys")));
+		assertTrue(index.search("mouse", 0, 10).isEmpty());
+		assertEquals(List.of(3), ids(index.search("keyboard", 0, 10)));
+
+		index.onProductChanged(ProductChangedEvent.deleted(3));
+		assertTrue(index.search("keyboard", 0, 10).isEmpty());
+	}
+
+	@Test
+	void topKeepsTheBestEntriesInRankOrder() {
+		Random random = new Random(7);
+		Map<Integer, Double> scores = new HashMap<>();
+		for (int id = 1; id <= 500; id++) {
+			// Few distinct values, so ties are broken by id
+			scores.put(id, (double) random.nextInt(20));
+		}
+		List<Map.Entry<Integer, Double>> sorted = new ArrayList<>(scores.entrySet());
+		sorted.sort(Map.Entry.<Integer, Double>comparingByValue(Collections.reverseOrder())
+				.thenComparing(Map.Entry.comparingByKey()));
+
+		assertEquals(sorted.subList(0, 30), ProductSearchIndex.top(scores, 30));
+		assertEquals(sorted, ProductSearchIndex.top(scores, 1000));
+		assertTrue(ProductSearchIndex.top(scores, 0).isEmpty());
+	}
+
+	@Test
+	void paginatesRankedResults() {
+		Page<ProductSummary> page = index.search("audio", 1, 1);
+
+		assertEquals(2, page.getTotalElements());
+		assertEquals(1, page.getContent().size());
+	}
+
+	private static List<Integer> ids(Page<ProductSummary> page) {
+		return page.getContent().stream().map(ProductSummary::id).toList();
+	}
+
+	private static Product product(int id, String name, String brand, String category, String description) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setBrand(brand);
+		product.setCategory(category);
+		product.setDescription(description);
+		product.setPrice(BigDecimal.TEN);
+		product.setProductAvailable(true);
+		product.setStockQuantity(5);
+		return product;
+	}
+}
@@ -0,0 +1,114 @@
+package com.cart.ecom_proj.service;
+
+import com.cart.ecom_proj.dto.ProductSuggestion;
+import com.cart.ecom_proj.dto.ProductSummary;
+import com.cart.ecom_proj.event.ProductChangedEvent;
+import com.cart.ecom_proj.model.Product;
+import com.cart.ecom_proj.repo.ProductRepo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ProductSuggestIndexTest {
+
+	private ProductSuggestIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSuggestIndex();
+		index.onProductChanged(ProductChangedEvent.created(product(1, "Wireless Headphones", "SoundWave", "Headphone")));
+		index.onProductChanged(ProductChangedEvent.created(product(2, "Headphone Stand", "DeskPro", "Accessories")));
+		index.onProductChanged(ProductChangedEvent.created(product(3, "Studio Headphones", "SoundWave", "Headphone")));
+	}
+
+	@Test
+	void suggestsLabelsThenProductsStartingWithPrefix() {
+		List<ProductSuggestion> suggestions = index.suggest("Head", 8);
+
+		assertEquals(ProductSuggestion.label(ProductSuggestion.CATEGORY, "Headphone", 2), suggestions.get(0));
+		assertEquals(ProductSuggestion.product(2, "Headphone Stand"), suggestions.get(1));
+		assertEquals(4, suggestions.size());
+	}
+
+	@Test
+	void matchesLaterWordsAndNormalizesPunctuation() {
+		assertEquals(List.of(ProductSuggestion.product(1, "Wireless Headphones")), index.suggest("wireless-head", 8));
+		assertEquals(List.of(ProductSuggestion.label(ProductSuggestion.BRAND, "SoundWave", 2)), index.suggest("sound", 8));
+	}
+
+	@Test
+	void updatesCountsAndNamesFromEvents() {
+		index.onProductChanged(ProductChangedEvent.updated(product(3, "Studio Monitor", "SoundWave", "Speakers")));
+		assertEquals(List.of(ProductSuggestion.label(ProductSuggestion.CATEGORY, "Headphone", 1),
+				ProductSuggestion.product(2, "Headphone Stand"),
+				ProductSuggestion.product(1, "Wireless Headphones")), index.suggest("headphone", 8));
+
+		index.onProductChanged(ProductChangedEvent.deleted(3));
+		assertTrue(index.suggest("studio", 8).isEmpty());
+		assertTrue(index.suggest("speak", 8).isEmpty());
+	}
+
+	@Test
+	void respectsLimit() {
+		assertEquals(2, index.suggest("h", 2).size());
+		assertTrue(index.suggest("  ", 8).isEmpty());
+	}
+
+	@Test
+	void rebuildPublishesTheNewIndexOnlyOnceItIsComplete() {
+		ProductRepo repo = mock(ProductRepo.class);
+		ReflectionTestUtils.setField(index, "productRepo", repo);
+		List<ProductSuggestion> before = index.suggest("s", 8);
+		when(repo.findSummariesAfter(eq(4), any())).thenReturn(List.of());
+		when(repo.findSummariesAfter(eq(0), any())).thenAnswer(invocation -> {
+			// Lookups keep answering from the old index while the new one is read
+			assertEquals(before, index.suggest("s", 8));
+			index.onProductChanged(ProductChangedEvent.created(product(9, "Sound Bar", "SoundWave", "Speakers")));
+			return List.of(ProductSummary.of(product(4, "Smart Speaker", "EchoHome", "Speakers")));
+		});
+
+		index.rebuild();
+
+		assertEquals(List.of(ProductSuggestion.label(ProductSuggestion.CATEGORY, "Speakers", 2),
+				ProductSuggestion.label(ProductSuggestion.BRAND, "SoundWave", 1),
+				ProductSuggestion.product(9, "Sound Bar"),
+				ProductSuggestion.product(4, "Smart Speaker")), index.suggest("s", 8));
+		assertTrue(index.suggest("head", 8).isEmpty());
+	}
+
+	@Test
+	void namesAndAvailabilityRankAheadOfTheScanCap() {
+		index = new ProductSuggestIndex();
+		// More later-word matches than one lookup scans, all sorting before the name matches
+		for (int id = 1; id <= 300; id++) {
+			index.onProductChanged(ProductChangedEvent.created(product(id, String.format("Phone Case %03d", id),
+					"Acme", "Accessories")));
+		}
+		Product cable = product(301, "Cable", "Acme", "Accessories");
+		cable.setProductAvailable(false);
+		index.onProductChanged(ProductChangedEvent.created(cable));
+		index.onProductChanged(ProductChangedEvent.created(product(302, "Cat Tower", "Acme", "Accessories")));
+
+		assertEquals(List.of(ProductSuggestion.product(302, "Cat Tower"), ProductSuggestion.product(301, "Cable"),
+				ProductSuggestion.product(1, "Phone Case 001")), index.suggest("ca", 3));
+	}
+
+	private static Product product(int id, String name, String brand, String category) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setBrand(brand);
+		product.setCategory(category);
+		product.setProductAvailable(true);
+		product.setStockQuantity(5);
+		return product;
+	}
+}
@@ -0,0 +1,89 @@
+package com.cart.ecom_proj.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileResponseUtilTest {
+
+	private static final String ETAG = "\"abc\"";
+
+	private final FileResponseUtil util = new FileResponseUtil();
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void servesWholeFile() throws Exception {
+		Path file = write("0123456789");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		util.writeFile(new MockHttpServletRequest("GET", "/img"), response, file, "image/png", ETAG);
+
+		assertEquals(200, response.getStatus());
+		assertEquals("0123456789", response.getContentAsString());
+		assertEquals(ETAG, response.getHeader("ETag"));
+		assertEquals("bytes", response.getHeader("Accept-Ranges"));
+	}
+
+	@Test
+	void servesSingleRange() throws Exception {
+		Path file = write("0123456789");
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+		request.addHeader("Range", "bytes=2-5");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		util.writeFile(request, response, file, "image/png", ETAG);
+
+		assertEquals(206, response.getStatus());
+		assertEquals("2345", response.getContentAsString());
+		assertEquals("bytes 2-5/10", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	void rejectsUnsatisfiableRange() throws Exception {
+		Path file = write("0123456789");
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+		request.addHeader("Range", "bytes=20-");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		util.writeFile(request, response, file, "image/png", ETAG);
+
+		assertEquals(416, response.getStatus());
+		assertEquals("bytes */10", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	void parsesSuffixAndOpenRanges() {
+		assertArrayEquals(new long[] { 7, 9 }, util.parseRange("bytes=-3", 10));
+		assertArrayEquals(new long[] { 4, 9 }, util.parseRange("bytes=4-", 10));
+		assertArrayEquals(new long[] { 4, 9 }, util.parseRange("bytes=4-100", 10));
+		assertEquals(0, util.parseRange("bytes=0-1,4-5", 10).length);
+		assertEquals(0, util.parseRange("items=0-1", 10).length);
+	}
+
+	@Test
+	void answersNotModifiedForMatchingEtag() {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/img");
+		request.addHeader("If-None-Match", "\"other\", W/\"abc\"");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		assertTrue(util.checkNotModified(request, response, ETAG));
+		assertEquals(304, response.getStatus());
+		assertFalse(util.checkNotModified(new MockHttpServletRequest("GET", "/img"),
+				new MockHttpServletResponse(), ETAG));
+	}
+
+	private Path write(String content) throws Exception {
+		Path file = dir.resolve("image");
+		Files.writeString(file, content, StandardCharsets.US_ASCII);
+		return file;
+	}
+}
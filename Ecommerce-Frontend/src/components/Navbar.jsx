@@ -24,20 +24,9 @@ const Navbar = () => {
   const [showSearchResults, setShowSearchResults] = useState(false);
   const [categories, setCategories] = useState([]);
   useEffect(() => {
-    fetchData();
     fetchCategories();
   }, []);
 
-  const fetchData = async () => {
-    try {
-      const response = await axios.get("/products");
-      setSearchResults(response.data.products || []);
-      console.log(response.data);
-    } catch (error) {
-      console.error("Error fetching data:", error);
-    }
-  };
-
   const fetchCategories = async () => {
     try {
       const response = await axios.get("/products/categories");
@@ -62,9 +51,15 @@ const Navbar = () => {
     if (value.length >= 1) {
       setShowSearchResults(true);
       try {
-        const response = await axios.get(`/products/search?keyword=${value}`);
-        setSearchResults(response.data);
-        setNoResults(response.data.length === 0);
+        const response = await axios.get("/products/suggest", {
+          params: { prefix: value },
+        });
+        // Brand suggestions have no page to link to yet
+        const suggestions = response.data.filter(
+          (suggestion) => suggestion.type !== "brand"
+        );
+        setSearchResults(suggestions);
+        setNoResults(suggestions.length === 0);
         console.log(response.data);
       } catch (error) {
         console.error("Error searching:", error);
@@ -244,15 +239,24 @@ const Navbar = () => {
                       {searchResults.length > 0
                         ? searchResults.map((result) => (
                             <a
-                              key={result.id}
-                              href={`/product/${result.id}`}
+                              key={`${result.type}-${result.productId ?? result.text}`}
+                              href={
+                                result.type === "category"
+                                  ? `/?category=${encodeURIComponent(result.text)}`
+                                  : `/product/${result.productId}`
+                              }
                               className="block px-4 py-2 text-sm text-gray-700 dark:text-gray-300 hover:bg-gray-100 dark:hover:bg-gray-700 border-b border-gray-200 dark:border-gray-700 last:border-b-0"
                               onClick={() => {
                                 setShowSearchResults(false);
                                 setInput("");
                               }}
                             >
-                              {result.name}
+                              {result.text}
+                              {result.type === "category" && (
+                                <span className="ml-2 text-xs text-gray-500">
+                                  in categories ({result.productCount})
+                                </span>
+                              )}
                             </a>
                           ))
                         : noResults && (
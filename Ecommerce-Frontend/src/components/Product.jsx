@@ -44,6 +44,45 @@ const Product = () => {
     }
   }, [id]);
 
+  // Live price and stock changes instead of re-polling the product
+  useEffect(() => {
+    if (!id) return;
+    const source = new EventSource(
+      `http://localhost:8080/api/products/stream?ids=${id}`
+    );
+    source.addEventListener("products", (event) => {
+      const update = JSON.parse(event.data).find(
+        (change) => String(change.id) === String(id)
+      );
+      if (!update) return;
+      if (update.type === "deleted") {
+        setProduct((current) =>
+          current ? { ...current, productAvailable: false, stockQuantity: 0 } : current
+        );
+        return;
+      }
+      setProduct((current) =>
+        current
+          ? {
+              ...current,
+              price: update.price,
+              stockQuantity: update.stockQuantity,
+              productAvailable: update.productAvailable,
+            }
+          : current
+      );
+    });
+    source.addEventListener("resync", async () => {
+      try {
+        const response = await axios.get(`/product/${id}`);
+        setProduct(response.data);
+      } catch (error) {
+        console.error("Error refreshing product:", error);
+      }
+    });
+    return () => source.close();
+  }, [id]);
+
   const handlAddToCart = async () => {
     if (!user) {
       alert("Please login to add items to cart");